@@ -0,0 +1,137 @@
+import java.util.Arrays;
+
+/**
+ * Reusable holder for the aggregate of a poll list, filled by
+ * PollList.fillAggregate. The expected seats and percentage of votes of
+ * every party are kept in primitive arrays, so reading an aggregate into a
+ * holder that is large enough does not create any objects. The arrays only
+ * grow when more parties are asked for than the holder has room for.
+ */
+public class AggregateResult {
+
+	private PartyRegistry registry;
+	private int numOfParties;
+	private int[] partyIds;
+	private float[] seats;
+	private float[] percentages;
+
+	/**
+	 * Constructor for AggregateResult class with room for 16 parties.
+	 */
+	public AggregateResult() {
+		this(16);
+	}
+
+	/**
+	 * Constructor for AggregateResult class.
+	 * @param capacity = number of parties the holder has room for before growing.
+	 */
+	public AggregateResult(int capacity) {
+		capacity = Math.max(capacity, 1);
+		partyIds = new int[capacity];
+		seats = new float[capacity];
+		percentages = new float[capacity];
+	}
+
+	/**
+	 * Method to obtain the number of parties in the aggregate.
+	 * @return = number of parties.
+	 */
+	public int size() {
+		return numOfParties;
+	}
+
+	/**
+	 * Getter methods that return the data of the party at a position of the
+	 * aggregate, positions follow the order the parties were asked for.
+	 * @param position = position of the party, from 0 to size() - 1.
+	 */
+	public int getPartyId(int position) {
+		return partyIds[checkPosition(position)];
+	}
+
+	public String getPartyName(int position) {
+		return registry.getName(partyIds[checkPosition(position)]);
+	}
+
+	public float getProjectedNumberOfSeats(int position) {
+		return seats[checkPosition(position)];
+	}
+
+	public float getProjectedPercentageOfVotes(int position) {
+		return percentages[checkPosition(position)];
+	}
+
+	/**
+	 * Method to find the position of a party in the aggregate.
+	 * @param partyId = ID of the party in the registry of the poll list.
+	 * @return = position of the party, or -1 if it is not in the aggregate.
+	 */
+	public int indexOf(int partyId) {
+		for (int position = 0; position < numOfParties; position++) {
+			if (partyIds[position] == partyId) {
+				return position;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Method to copy the aggregate into a new poll named "Aggregate", the same
+	 * as the one returned by PollList.getAggregatePoll.
+	 * @return = aggregate poll.
+	 */
+	public Poll toPoll() {
+		Poll aggregatePoll = new Poll("Aggregate", Math.max(numOfParties, 1));
+		for (int position = 0; position < numOfParties; position++) {
+			aggregatePoll.addParty(new Party(getPartyName(position), seats[position], percentages[position]));
+		}
+		return aggregatePoll;
+	}
+
+	/**
+	 * Method to obtain the aggregate as text, one party per line.
+	 * @return = text representation of the aggregate.
+	 */
+	public String toString() {
+		return toPoll().toString();
+	}
+
+	// METHODS USED BY PollAggregator
+	void clear(PartyRegistry partyRegistry, int expectedParties) {
+		registry = partyRegistry;
+		numOfParties = 0;
+		if (expectedParties > partyIds.length) {
+			int newLength = Math.max(expectedParties, partyIds.length * 2);
+			partyIds = Arrays.copyOf(partyIds, newLength);
+			seats = Arrays.copyOf(seats, newLength);
+			percentages = Arrays.copyOf(percentages, newLength);
+		}
+	}
+
+	void add(int partyId, float partySeats, float partyPercentage) {
+		if (numOfParties == partyIds.length) {
+			clearKeeping(numOfParties + 1);
+		}
+		partyIds[numOfParties] = partyId;
+		seats[numOfParties] = partySeats;
+		percentages[numOfParties] = partyPercentage;
+		numOfParties++;
+	}
+
+	// PRIVATE METHODS
+	private void clearKeeping(int expectedParties) {
+		int size = numOfParties;
+		clear(registry, expectedParties);
+		numOfParties = size;
+	}
+
+	private int checkPosition(int position) {
+		if (position < 0 || position >= numOfParties) {
+			throw new IndexOutOfBoundsException("Position " + position + " is not in an aggregate of "
+					+ numOfParties + " parties");
+		}
+		return position;
+	}
+
+}
@@ -0,0 +1,95 @@
+/**
+ * Kernel that adds up a column of floats, such as the seats of one party in
+ * every poll of a list, skipping the NaN entries of polls that do not have
+ * the party. The sums are the inner loop of aggregating a whole history
+ * from columns, see PollList.getAveragePartyData(String, AggregationKernel).
+ * <p>
+ * Two kernels are available: a plain loop, and one using the SIMD
+ * instructions of the processor through the jdk.incubator.vector module.
+ * The vector kernel is only available when the application is started with
+ * --add-modules jdk.incubator.vector; otherwise vector() returns the scalar
+ * kernel.
+ */
+public abstract class AggregationKernel {
+
+	private static final AggregationKernel SCALAR = new Scalar();
+	private static final AggregationKernel VECTOR = loadVector();
+
+	/**
+	 * Method to obtain the kernel that adds up one value at a time.
+	 * @return = scalar kernel.
+	 */
+	public static AggregationKernel scalar() {
+		return SCALAR;
+	}
+
+	/**
+	 * Method to obtain the kernel that adds up as many values at a time as
+	 * the processor allows, or the scalar kernel if the Vector API is not
+	 * available.
+	 * @return = vector kernel, or the scalar kernel.
+	 */
+	public static AggregationKernel vector() {
+		return VECTOR;
+	}
+
+	/**
+	 * Method to obtain the name of the kernel, for reports and benchmarks.
+	 * @return = name of the kernel.
+	 */
+	public abstract String getName();
+
+	/**
+	 * Method to add up part of a column, leaving out NaN values.
+	 * @param column = values to add up, NaN for missing values.
+	 * @param from = index of the first value.
+	 * @param to = index after the last value.
+	 * @param sumAndCount = the sum is added to position 0 and the number of
+	 * values that are not NaN to position 1.
+	 */
+	public abstract void accumulate(float[] column, int from, int to, double[] sumAndCount);
+
+	/**
+	 * Method to obtain the name of the kernel.
+	 * @return = name of the kernel.
+	 */
+	public String toString() {
+		return getName();
+	}
+
+	// PRIVATE METHODS
+	private static AggregationKernel loadVector() {
+		try {
+			// loaded by name, so this class still loads when the module is missing
+			return (AggregationKernel) Class.forName("VectorAggregationKernel")
+					.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			return SCALAR;
+		}
+	}
+
+	/**
+	 * Kernel that adds up one value at a time.
+	 */
+	private static class Scalar extends AggregationKernel {
+
+		public String getName() {
+			return "scalar";
+		}
+
+		public void accumulate(float[] column, int from, int to, double[] sumAndCount) {
+			double sum = 0;
+			int count = 0;
+			for (int index = from; index < to; index++) {
+				float value = column[index];
+				if (value == value) { // false for NaN
+					sum += value;
+					count++;
+				}
+			}
+			sumAndCount[0] += sum;
+			sumAndCount[1] += count;
+		}
+	}
+
+}
@@ -0,0 +1,79 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * This class builds the star bars used by the Party visualizations and keeps
+ * the ones already built, so drawing a party does not rebuild the same bar 
+ * again. Bars are shared by all threads and never change once built. Only 
+ * bars of at most MAX_CACHED_STARS stars are kept, larger ones are built 
+ * every time they are asked for.
+ */
+public class BarCache {
+	
+	// INSTANCE VARIABLES
+	public static final int MAX_CACHED_STARS = 4 * PollList.MAX_STARS_FOR_VISUALIZATION;
+	// row maxStars holds the bars for 0 to maxStars printed stars, rows are built when first used
+	private static final AtomicReferenceArray<String[]> rows = 
+			new AtomicReferenceArray<String[]>(MAX_CACHED_STARS + 1);
+	
+	// CONSTRUCTORS
+	private BarCache() {
+	}
+	
+	// PUBLIC METHODS
+	/**
+	 * This method gets the bar showing printedStars stars out of maxStars, with
+	 * a '|' at the point where a majority is reached and blanks in the remaining space
+	 * @param maxStars the total number of stars in the bar
+	 * @param printedStars the number of stars to print
+	 * @returns String the bar
+	 */
+	public static String bar(int maxStars, int printedStars) {
+		if (maxStars < 0 || maxStars > MAX_CACHED_STARS || printedStars < 0 || printedStars > maxStars) {
+			return buildBar(maxStars, printedStars);
+		}
+		String[] row = rows.get(maxStars);
+		if (row == null) {
+			row = new String[maxStars + 1];
+			for (int stars = 0; stars <= maxStars; stars++) {
+				row[stars] = buildBar(maxStars, stars);
+			}
+			// another thread may have built the same row, either one can be used
+			rows.compareAndSet(maxStars, null, row);
+		}
+		return row[printedStars];
+	}
+	
+	// PRIVATE METHODS
+	private static String buildBar(int maxStars, int printedStars) {
+		/*
+		 * determines where the bar that represents the majority needs to 
+		 * be printed and how many blank spaces need to be represented
+		 */
+		int blankSpace = Math.max(0, maxStars - printedStars);
+		int majority = (int) Math.ceil(maxStars/2.0);
+		char[] visual;
+		
+		if(printedStars>majority) { //stars, the bar, stars past the bar, then blanks
+			visual = new char[printedStars + 1 + blankSpace];
+			Arrays.fill(visual, 0, printedStars + 1, '*');
+			visual[majority] = '|';
+			Arrays.fill(visual, printedStars + 1, visual.length, ' ');
+		}
+		else if(printedStars == majority) { //stars, the bar, then blanks
+			visual = new char[majority + 1 + blankSpace];
+			Arrays.fill(visual, 0, majority, '*');
+			visual[majority] = '|';
+			Arrays.fill(visual, majority + 1, visual.length, ' ');
+		}
+		else { //stars, blanks before the bar, the bar, then blanks after the bar
+			int blanksBeforeBar = Math.max(0, blankSpace - majority);
+			int stars = Math.max(0, printedStars);
+			visual = new char[stars + blanksBeforeBar + 1 + majority];
+			Arrays.fill(visual, 0, stars, '*');
+			Arrays.fill(visual, stars, visual.length, ' ');
+			visual[stars + blanksBeforeBar] = '|';
+		}
+		return new String(visual);
+	}
+}
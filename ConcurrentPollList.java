@@ -0,0 +1,240 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Class representing a list of polls for the same election that can be 
+ * shared between threads. Polls can be added by any number of threads 
+ * while other threads read aggregates and visualizations. Adding never 
+ * takes a lock, and readers never block and always work on a snapshot 
+ * of the polls that were in the list at one point in time. 
+ * <p>
+ * Polls should be complete before they are added, since the polls 
+ * themselves are not made thread-safe by this class. 
+ */
+public class ConcurrentPollList {
+	
+	private static final VarHandle POLL_SLOT = MethodHandles.arrayElementVarHandle(Poll[].class);
+	private static final int INITIAL_CAPACITY = 16;
+	
+	private final AtomicReference<Snapshot> current;
+	private final int numOfSeats;
+	
+	/**
+	 * Polls that were in the list at one point in time, the first 
+	 * numOfPolls entries of polls. The array can be shared with later 
+	 * snapshots, but entries before numOfPolls never change.
+	 */
+	private static class Snapshot {
+		private final Poll[] polls;
+		private final int numOfPolls;
+		
+		private Snapshot(Poll[] polls, int numOfPolls) {
+			this.polls = polls;
+			this.numOfPolls = numOfPolls;
+		}
+	}
+	
+	/**
+	 * Constructor for ConcurrentPollList class that creates an empty list. 
+	 * @param seats = number of seats available in election that is 
+	 * covered by polls in the list. 
+	 */
+	public ConcurrentPollList(int seats) {
+		if (seats > 0) {
+			numOfSeats = seats; 
+		} 
+		else {
+			numOfSeats = 10;
+			System.out.println("Number of seats should be at least 1. "
+					+ "Number of seats set to 10.");
+		}
+		current = new AtomicReference<Snapshot>(new Snapshot(new Poll[INITIAL_CAPACITY], 0));
+	}
+	
+	/**
+	 * Getter methods that return a copy of the polls currently in the list, 
+	 * the number of polls in the list and the number of seats available in 
+	 * the election covered by the polls.
+	 */
+	public Poll[] toArray() {
+		Snapshot snapshot = current.get();
+		return Arrays.copyOf(snapshot.polls, snapshot.numOfPolls);
+	}
+	
+	public int getNumOfPolls() {
+		return current.get().numOfPolls;
+	}
+	
+	public int getNumOfSeats() {
+		return numOfSeats;
+	}
+	
+	/**
+	 * Method to add a poll to the list. Safe to call from any number of threads. 
+	 * @param pollToAdd = Poll to add to list of polls.
+	 */
+	public void addPoll(Poll pollToAdd) {
+		if (pollToAdd == null) {
+			System.out.println("Error: Provided argument is of type 'null'.");
+			return;
+		}
+		
+		while (true) {
+			Snapshot snapshot = current.get();
+			int index = snapshot.numOfPolls;
+			
+			// no room left, publish a larger copy of the array and try again
+			if (index == snapshot.polls.length) {
+				Poll[] larger = Arrays.copyOf(snapshot.polls, index * 2);
+				current.compareAndSet(snapshot, new Snapshot(larger, index));
+				continue;
+			}
+			
+			// claim the next free slot, then publish a snapshot that includes it
+			if (POLL_SLOT.compareAndSet(snapshot.polls, index, (Poll) null, pollToAdd)) {
+				current.compareAndSet(snapshot, new Snapshot(snapshot.polls, index + 1));
+				return;
+			}
+			
+			// another thread claimed the slot first, help it publish before trying again
+			current.compareAndSet(snapshot, new Snapshot(snapshot.polls, index + 1));
+		}
+	}
+	
+	/**
+	 * Method to calculate expected number of seats and percentage of votes 
+	 * for a party over the polls currently in the list.
+	 * @param name = name of party to calculate expected results for.
+	 * @return = instance of Party with expected seats and percentage. 
+	 */
+	public Party getAveragePartyData(String name) {
+		Snapshot snapshot = current.get();
+		String[] names = {name};
+		return ParallelPollAggregation.aggregate(snapshot.polls, 0, snapshot.numOfPolls, names)
+				.getAveragePartyData(name);
+	}
+	
+	/**
+	 * Method to obtain a poll that represents the aggregate of the polls 
+	 * currently in the list.
+	 * @param names = names of parties to include in the aggregate poll
+	 * @return = aggregate poll with desired parties. 
+	 */
+	public Poll getAggregatePoll(String[] names) {
+		Snapshot snapshot = current.get();
+		return ParallelPollAggregation.aggregate(snapshot.polls, 0, snapshot.numOfPolls, names)
+				.getAggregatePoll();
+	}
+	
+	/**
+	 * Method to obtain a number of seats per star to be used 
+	 * for text visualization by seats.  
+	 * @return = number of seats per star. 
+	 */
+	public int seatsPerStar() {
+		return PollList.seatsPerStar(numOfSeats);
+	}
+	
+	/**
+	 * Method to obtain a text-based visualization, based on seats, 
+	 * for each poll currently in the list. 
+	 * @return = text visualization of polls. 
+	 */
+	public String textVisualizationBySeats() {
+		StringBuilder stringVisualization = new StringBuilder();
+		try {
+			textVisualizationBySeats(stringVisualization);
+		} catch (IOException e) { // a StringBuilder never throws
+			throw new UncheckedIOException(e);
+		}
+		return stringVisualization.toString();
+	}
+	
+	/**
+	 * Method to write the text-based visualization, based on seats, 
+	 * for each poll currently in the list. 
+	 * @param out = where the visualization is written to. 
+	 * @throws IOException = if writing to out fails. 
+	 */
+	public void textVisualizationBySeats(Appendable out) throws IOException {
+		Snapshot snapshot = current.get();
+		int seats = seatsPerStar();
+		for (int index = 0; index < snapshot.numOfPolls; index++) {
+			snapshot.polls[index].textVisualizationBySeats(out, 
+					PollList.MAX_STARS_FOR_VISUALIZATION, seats);
+			out.append('\n');
+		}
+	}
+	
+	/**
+	 * Method to obtain a text-based visualization, based on votes,
+	 * for each poll currently in the list.
+	 * @return = text visualization of polls. 
+	 */
+	public String textVisualizationByVotes() {
+		StringBuilder stringVisualization = new StringBuilder();
+		try {
+			textVisualizationByVotes(stringVisualization);
+		} catch (IOException e) { // a StringBuilder never throws
+			throw new UncheckedIOException(e);
+		}
+		return stringVisualization.toString();
+	}
+	
+	/**
+	 * Method to write the text-based visualization, based on votes, 
+	 * for each poll currently in the list. 
+	 * @param out = where the visualization is written to. 
+	 * @throws IOException = if writing to out fails. 
+	 */
+	public void textVisualizationByVotes(Appendable out) throws IOException {
+		Snapshot snapshot = current.get();
+		for (int index = 0; index < snapshot.numOfPolls; index++) {
+			snapshot.polls[index].textVisualizationByVotes(out, 
+					PollList.MAX_STARS_FOR_VISUALIZATION, 
+					100 / PollList.MAX_STARS_FOR_VISUALIZATION + 1);
+			out.append('\n');
+		}
+	}
+	
+	/**
+	 * Method to obtain a PollList holding copies of the polls currently in 
+	 * the list. Copies are used because a PollList registers itself with its 
+	 * polls, which is not safe while other threads do the same. 
+	 * @return = poll list with a snapshot of the polls. 
+	 */
+	public PollList toPollList() {
+		Snapshot snapshot = current.get();
+		PollList list = new PollList(numOfSeats);
+		for (int index = 0; index < snapshot.numOfPolls; index++) {
+			list.addPoll(copyOf(snapshot.polls[index]));
+		}
+		return list;
+	}
+	
+	// PRIVATE METHODS
+	private static Poll copyOf(Poll poll) {
+		Party[] parties = poll.getParties();
+		Poll copy = new Poll(poll.getPollName(), parties.length);
+		copy.setSampleSize(poll.getSampleSize());
+		copy.setFieldedDate(poll.getFieldedDate());
+		// parties are copied in the order they were added, the poll fills its array from the end
+		for (int index = parties.length - 1; index >= 0; index--) {
+			Party party = parties[index];
+			if (party != null) {
+				Party partyCopy = new Party(party.getName(), party.getProjectedNumberOfSeats(), 
+						party.getProjectedPercentageOfVotes());
+				if (party.getPartyColour() != null) {
+					partyCopy.setColour(party.getPartyColour());
+				}
+				copy.addParty(partyCopy);
+			}
+		}
+		return copy;
+	}
+	
+}
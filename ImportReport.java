@@ -0,0 +1,81 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Summary of a bulk import done by PollImporter: how many rows and polls
+ * were imported and which rows were rejected. Only the first MAX_ERRORS
+ * rejected rows are described, the rest are only counted.
+ */
+public class ImportReport {
+
+	public static final int MAX_ERRORS = 1000;
+
+	private long rowsImported;
+	private int pollsImported;
+	private long errorCount;
+	private List<String> errors = new ArrayList<String>();
+
+	/**
+	 * Getter methods that return the number of rows imported, the number of
+	 * polls added to the list, the number of rows rejected and the description
+	 * of the first rejected rows.
+	 */
+	public long getRowsImported() {
+		return rowsImported;
+	}
+
+	public int getPollsImported() {
+		return pollsImported;
+	}
+
+	public long getErrorCount() {
+		return errorCount;
+	}
+
+	public List<String> getErrors() {
+		return Collections.unmodifiableList(errors);
+	}
+
+	/**
+	 * Method to check whether every row was imported.
+	 * @return = true if no row was rejected.
+	 */
+	public boolean isClean() {
+		return errorCount == 0;
+	}
+
+	/**
+	 * Method to obtain a summary of the import followed by the rejected rows, one per line.
+	 * @return = text summary of the import.
+	 */
+	public String toString() {
+		StringBuilder summary = new StringBuilder();
+		summary.append("Imported ").append(rowsImported).append(" rows into ")
+				.append(pollsImported).append(" polls, rejected ").append(errorCount).append(" rows");
+		for (String error : errors) {
+			summary.append('\n').append(error);
+		}
+		if (errorCount > errors.size()) {
+			summary.append("\n... ").append(errorCount - errors.size()).append(" more");
+		}
+		return summary.toString();
+	}
+
+	// METHODS USED BY PollImporter
+	void rowImported() {
+		rowsImported++;
+	}
+
+	void pollImported() {
+		pollsImported++;
+	}
+
+	void rowRejected(long lineNumber, String reason) {
+		errorCount++;
+		if (errors.size() < MAX_ERRORS) {
+			errors.add("Line " + lineNumber + ": " + reason);
+		}
+	}
+
+}
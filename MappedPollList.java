@@ -0,0 +1,184 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Read-only view of a poll list snapshot file written by PollListSnapshot. 
+ * The file is memory-mapped when it is opened, which only costs reading 
+ * the header and the party name dictionary. A poll is decoded the first 
+ * time it is asked for and kept afterwards. 
+ * <p>
+ * Instances are not thread-safe. 
+ */
+public class MappedPollList implements Closeable {
+	
+	// the file is mapped in windows of this size, as one mapping is limited to 2GB
+	private static final long WINDOW_SIZE = 1L << 30;
+	
+	private FileChannel channel;
+	private long fileSize;
+	private MappedByteBuffer[] windows;
+	private int numOfSeats;
+	private String[] partyNames;
+	private long indexOffset;
+	private Poll[] polls;
+	private int formatVersion;
+	
+	/**
+	 * Constructor used by PollListSnapshot.open, maps the file and reads its header.
+	 * @param channel = channel of the file, closed by close(). 
+	 * @throws IOException = if the file cannot be read or is not a poll list snapshot. 
+	 */
+	MappedPollList(FileChannel channel) throws IOException {
+		this.channel = channel;
+		try {
+			fileSize = channel.size();
+			int numOfWindows = (int) ((fileSize + WINDOW_SIZE - 1) / WINDOW_SIZE);
+			windows = new MappedByteBuffer[numOfWindows];
+			for (int index = 0; index < numOfWindows; index++) {
+				long start = index * WINDOW_SIZE;
+				windows[index] = channel.map(FileChannel.MapMode.READ_ONLY, start, 
+						Math.min(WINDOW_SIZE, fileSize - start));
+			}
+			
+			if (fileSize < PollListSnapshot.HEADER_SIZE) {
+				throw new IOException("File is too short to be a poll list snapshot");
+			}
+			ByteBuffer header = region(0, PollListSnapshot.HEADER_SIZE);
+			if (header.getInt() != PollListSnapshot.MAGIC) {
+				throw new IOException("File is not a poll list snapshot");
+			}
+			formatVersion = header.getInt();
+			if (formatVersion < 1 || formatVersion > PollListSnapshot.VERSION) {
+				throw new IOException("Unsupported poll list snapshot version " + formatVersion);
+			}
+			numOfSeats = header.getInt();
+			partyNames = new String[header.getInt()];
+			polls = new Poll[header.getInt()];
+			
+			long offset = PollListSnapshot.HEADER_SIZE;
+			for (int index = 0; index < partyNames.length; index++) {
+				int length = region(offset, Integer.BYTES).getInt();
+				partyNames[index] = decode(region(offset + Integer.BYTES, length), length);
+				offset += Integer.BYTES + length;
+			}
+			indexOffset = offset;
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Getter methods that return the number of seats available in the 
+	 * election, the number of polls in the file and the party names used by them. 
+	 */
+	public int getNumOfSeats() {
+		return numOfSeats;
+	}
+	
+	public int getNumOfPolls() {
+		return polls.length;
+	}
+	
+	public String[] getPartyNames() {
+		return partyNames.clone();
+	}
+	
+	/**
+	 * Method to get a poll from the file, decoding it if it was not asked for before. 
+	 * @param index = position of the poll in the file, starting at 0. 
+	 * @return = the poll. 
+	 * @throws IOException = if the poll cannot be read. 
+	 */
+	public Poll getPoll(int index) throws IOException {
+		if (index < 0 || index >= polls.length) {
+			throw new IndexOutOfBoundsException("No poll at index " + index);
+		}
+		if (polls[index] == null) {
+			polls[index] = decodePoll(index);
+		}
+		return polls[index];
+	}
+	
+	/**
+	 * Method to decode every poll in the file into a PollList. 
+	 * @return = growable poll list with all polls in the file. 
+	 * @throws IOException = if a poll cannot be read. 
+	 */
+	public PollList toPollList() throws IOException {
+		PollList list = new PollList(numOfSeats);
+		for (int index = 0; index < polls.length; index++) {
+			list.addPoll(getPoll(index));
+		}
+		return list;
+	}
+	
+	/**
+	 * Method to close the file. Polls already decoded can still be used. 
+	 * @throws IOException = if closing the file fails. 
+	 */
+	public void close() throws IOException {
+		windows = null;
+		channel.close();
+	}
+	
+	// PRIVATE METHODS
+	private Poll decodePoll(int index) throws IOException {
+		long offset = region(indexOffset + (long) index * Long.BYTES, Long.BYTES).getLong();
+		long end = (index + 1 < polls.length) 
+				? region(indexOffset + (long) (index + 1) * Long.BYTES, Long.BYTES).getLong() 
+				: fileSize;
+		ByteBuffer record = region(offset, (int) (end - offset));
+		
+		int nameLength = record.getInt();
+		String name = decode(record, nameLength);
+		int maxParties = record.getInt();
+		Poll poll = new Poll(name, maxParties);
+		if (formatVersion >= 2) { // version 1 has no sample size or fielded date
+			poll.setSampleSize(record.getInt());
+			long fieldedDay = record.getLong();
+			if (fieldedDay != PollListSnapshot.NO_FIELDED_DATE) {
+				poll.setFieldedDate(LocalDate.ofEpochDay(fieldedDay));
+			}
+		}
+		int numOfParties = record.getInt();
+		for (int count = 0; count < numOfParties; count++) {
+			String partyName = partyNames[record.getInt()];
+			float seats = record.getFloat();
+			float percentage = record.getFloat();
+			poll.addParty(new Party(partyName, seats, percentage));
+		}
+		return poll;
+	}
+	
+	/**
+	 * Method to get the bytes of the file from offset to offset + length, from 
+	 * the mapped window that holds them, or from a new mapping if they cross 
+	 * the end of a window. 
+	 */
+	private ByteBuffer region(long offset, int length) throws IOException {
+		if (offset < 0 || length < 0 || offset + length > fileSize) {
+			throw new IOException("Poll list snapshot is corrupt");
+		}
+		int window = (int) (offset / WINDOW_SIZE);
+		int start = (int) (offset % WINDOW_SIZE);
+		if (start + (long) length <= WINDOW_SIZE) {
+			ByteBuffer buffer = windows[window].duplicate();
+			buffer.position(start).limit(start + length);
+			return buffer;
+		}
+		return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+	}
+	
+	private static String decode(ByteBuffer buffer, int length) {
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+}
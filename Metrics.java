@@ -0,0 +1,270 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters and latency histograms for the hot paths of the poll tracker.
+ * <p>
+ * Metrics are only recorded when the application is started with 
+ * -Dpolltracker.metrics=true. ENABLED is a constant, so when it is false 
+ * the JIT compiler removes the instrumentation from the measured methods 
+ * entirely. Recording is built on LongAdder, which spreads updates over 
+ * per-thread cells, so threads recording at the same time do not contend.
+ * <p>
+ * Metrics can be read with dump() or through JMX after registerMBean().
+ */
+public final class Metrics {
+	
+	public static final boolean ENABLED = Boolean.getBoolean("polltracker.metrics");
+	public static final String OBJECT_NAME = "polltracker:type=Metrics";
+	
+	// COUNTERS
+	public static final Counter POLLS_ADDED = new Counter("addPoll");
+	public static final Counter PARTIES_ADDED = new Counter("addParty");
+	public static final Counter PARTY_LOOKUP_HITS = new Counter("getParty.hits");
+	public static final Counter PARTY_LOOKUP_MISSES = new Counter("getParty.misses");
+	public static final Counter VALIDATION_REJECTIONS = new Counter("party.validationRejections");
+	public static final Counter LOG_RECORDS = new Counter("wal.records");
+	public static final Counter LOG_CHECKPOINTS = new Counter("wal.checkpoints");
+	private static final Counter[] COUNTERS = {POLLS_ADDED, PARTIES_ADDED, 
+			PARTY_LOOKUP_HITS, PARTY_LOOKUP_MISSES, VALIDATION_REJECTIONS, 
+			LOG_RECORDS, LOG_CHECKPOINTS};
+	
+	// LATENCIES
+	public static final LatencyHistogram AGGREGATE_LATENCY = new LatencyHistogram("getAggregatePoll");
+	public static final LatencyHistogram POLL_LIST_VISUALIZATION_LATENCY = 
+			new LatencyHistogram("pollList.textVisualization");
+	public static final LatencyHistogram POLL_VISUALIZATION_LATENCY = 
+			new LatencyHistogram("poll.textVisualization");
+	public static final LatencyHistogram LOG_SYNC_LATENCY = new LatencyHistogram("wal.sync");
+	private static final LatencyHistogram[] HISTOGRAMS = {AGGREGATE_LATENCY, 
+			POLL_LIST_VISUALIZATION_LATENCY, POLL_VISUALIZATION_LATENCY, LOG_SYNC_LATENCY};
+	
+	private Metrics() {
+	}
+	
+	/**
+	 * A count of events.
+	 */
+	public static final class Counter {
+		private final String name;
+		private final LongAdder count = new LongAdder();
+		
+		private Counter(String name) {
+			this.name = name;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		/**
+		 * This method counts one event, callers check ENABLED first
+		 */
+		public void increment() {
+			count.increment();
+		}
+		
+		public long get() {
+			return count.sum();
+		}
+	}
+	
+	/**
+	 * Latencies of a method, counted in buckets that are powers of two 
+	 * nanoseconds wide, so percentiles are accurate to within a factor of two.
+	 */
+	public static final class LatencyHistogram {
+		private final String name;
+		private final LongAdder[] buckets = new LongAdder[Long.SIZE];
+		private final LongAdder totalNanos = new LongAdder();
+		private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+		
+		private LatencyHistogram(String name) {
+			this.name = name;
+			for (int index = 0; index < buckets.length; index++) {
+				buckets[index] = new LongAdder();
+			}
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		/**
+		 * This method records one call, callers check ENABLED first
+		 * @param nanos how long the call took in nanoseconds
+		 */
+		public void record(long nanos) {
+			if (nanos < 0) nanos = 0;
+			// bucket i holds latencies from 2^(i-1) up to 2^i - 1 nanoseconds
+			buckets[Long.SIZE - Long.numberOfLeadingZeros(nanos)].increment();
+			totalNanos.add(nanos);
+			maxNanos.accumulate(nanos);
+		}
+		
+		public long getCount() {
+			long count = 0;
+			for (LongAdder bucket : buckets) {
+				count += bucket.sum();
+			}
+			return count;
+		}
+		
+		public double getMeanMicros() {
+			long count = getCount();
+			return (count == 0) ? 0 : totalNanos.sum() / 1000.0 / count;
+		}
+		
+		public double getMaxMicros() {
+			return maxNanos.get() / 1000.0;
+		}
+		
+		/**
+		 * This method estimates a percentile of the recorded latencies
+		 * @param percentile percentile between 0 and 100
+		 * @return the upper bound of the bucket holding the percentile, in microseconds
+		 */
+		public double getPercentileMicros(double percentile) {
+			long[] counts = new long[buckets.length];
+			long count = 0;
+			for (int index = 0; index < buckets.length; index++) {
+				counts[index] = buckets[index].sum();
+				count += counts[index];
+			}
+			if (count == 0) return 0;
+			long rank = (long) Math.ceil(count * percentile / 100.0);
+			long seen = 0;
+			for (int index = 0; index < counts.length; index++) {
+				seen += counts[index];
+				if (seen >= Math.max(1, rank)) {
+					return Math.min((index == 0) ? 0 : Math.scalb(1.0, index) - 1, maxNanos.get()) / 1000.0;
+				}
+			}
+			return getMaxMicros();
+		}
+		
+		private void reset() {
+			for (LongAdder bucket : buckets) {
+				bucket.reset();
+			}
+			totalNanos.reset();
+			maxNanos.reset();
+		}
+	}
+	
+	// PUBLIC METHODS
+	/**
+	 * This method gets all metrics as plain text, one per line
+	 * @return text dump of the metrics
+	 */
+	public static String dump() {
+		StringBuilder text = new StringBuilder();
+		try {
+			dump(text);
+		} catch (IOException e) { // a StringBuilder never throws
+			throw new UncheckedIOException(e);
+		}
+		return text.toString();
+	}
+	
+	/**
+	 * This method writes all metrics as plain text, one per line
+	 * @param out where the metrics are written to
+	 * @throws IOException if writing to out fails
+	 */
+	public static void dump(Appendable out) throws IOException {
+		if (!ENABLED) {
+			out.append("metrics disabled, start with -Dpolltracker.metrics=true\n");
+		}
+		for (Counter counter : COUNTERS) {
+			out.append(counter.getName()).append(' ').append(Long.toString(counter.get())).append('\n');
+		}
+		for (LatencyHistogram histogram : HISTOGRAMS) {
+			out.append(histogram.getName())
+					.append(" count=").append(Long.toString(histogram.getCount()))
+					.append(" mean=").append(format(histogram.getMeanMicros()))
+					.append("us p50=").append(format(histogram.getPercentileMicros(50)))
+					.append("us p99=").append(format(histogram.getPercentileMicros(99)))
+					.append("us max=").append(format(histogram.getMaxMicros())).append("us\n");
+		}
+	}
+	
+	/**
+	 * This method sets every counter and latency back to zero
+	 */
+	public static void reset() {
+		for (Counter counter : COUNTERS) {
+			counter.count.reset();
+		}
+		for (LatencyHistogram histogram : HISTOGRAMS) {
+			histogram.reset();
+		}
+	}
+	
+	/**
+	 * This method makes the metrics available through JMX under OBJECT_NAME,
+	 * doing nothing if they are already registered
+	 */
+	public static void registerMBean() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (!server.isRegistered(name)) {
+				server.registerMBean(new MBean(), name);
+			}
+		} catch (JMException e) {
+			System.out.println("Error: could not register metrics with JMX: " + e.getMessage());
+		}
+	}
+	
+	// PRIVATE METHODS
+	private static String format(double micros) {
+		return String.format("%.1f", micros);
+	}
+	
+	/**
+	 * Implementation of the JMX interface, reading the static metrics.
+	 */
+	private static class MBean implements MetricsMXBean {
+		public boolean isEnabled() {
+			return ENABLED;
+		}
+		
+		public Map<String, Long> getCounters() {
+			Map<String, Long> counters = new LinkedHashMap<String, Long>();
+			for (Counter counter : COUNTERS) {
+				counters.put(counter.getName(), counter.get());
+			}
+			return counters;
+		}
+		
+		public Map<String, Double> getLatencies() {
+			Map<String, Double> latencies = new LinkedHashMap<String, Double>();
+			for (LatencyHistogram histogram : HISTOGRAMS) {
+				latencies.put(histogram.getName() + ".count", (double) histogram.getCount());
+				latencies.put(histogram.getName() + ".mean", histogram.getMeanMicros());
+				latencies.put(histogram.getName() + ".p50", histogram.getPercentileMicros(50));
+				latencies.put(histogram.getName() + ".p99", histogram.getPercentileMicros(99));
+				latencies.put(histogram.getName() + ".max", histogram.getMaxMicros());
+			}
+			return latencies;
+		}
+		
+		public String getDump() {
+			return dump();
+		}
+		
+		public void reset() {
+			Metrics.reset();
+		}
+	}
+	
+}
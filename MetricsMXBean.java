@@ -0,0 +1,38 @@
+import java.util.Map;
+
+/**
+ * Management interface that exposes the poll tracker metrics through JMX.
+ * Registered by Metrics.registerMBean().
+ */
+public interface MetricsMXBean {
+	
+	/**
+	 * This method tells whether metrics are being recorded
+	 * @return true if the application was started with -Dpolltracker.metrics=true
+	 */
+	boolean isEnabled();
+	
+	/**
+	 * This method gets the value of every counter
+	 * @return counter values by counter name
+	 */
+	Map<String, Long> getCounters();
+	
+	/**
+	 * This method gets the number of calls, mean, 50th and 99th percentile and 
+	 * maximum latency in microseconds of every timed method
+	 * @return latency statistics by name, such as "getAggregatePoll.p99"
+	 */
+	Map<String, Double> getLatencies();
+	
+	/**
+	 * This method gets all metrics as plain text, one per line
+	 * @return text dump of the metrics
+	 */
+	String getDump();
+	
+	/**
+	 * This method sets every counter and latency back to zero
+	 */
+	void reset();
+}
@@ -0,0 +1,360 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Poll list that keeps the parties of its polls outside the Java heap, for
+ * data sets with tens of millions of parties in polls. Every party in a poll
+ * is one 12 byte entry (party ID, seats, percentage of votes) in direct byte
+ * buffers, and party names are kept once in a PartyRegistry, so the heap
+ * only holds a name and a start position per poll, whatever the number of
+ * parties.
+ * <p>
+ * Poll objects are only created when getPoll is called and are not kept.
+ * Running totals are kept per party ID as polls are added, and rendering
+ * formats the entries straight from the buffers, so neither creates a Party
+ * per entry.
+ * <p>
+ * The buffers are given back by the garbage collector. close() lets go of
+ * them, so they can be reclaimed while the list itself is still referenced.
+ * Instances are not thread-safe.
+ */
+public class OffHeapPollList implements Closeable {
+
+	// bytes per entry: party ID, seats and percentage of votes
+	private static final int ENTRY_SIZE = 12;
+	// entries are kept in buffers of this many entries, as one buffer is limited to 2GB
+	private static final int ENTRIES_PER_CHUNK = 1 << 20;
+	private static final int CHUNK_SHIFT = 20;
+
+	private int numOfSeats;
+	private PartyRegistry registry = new PartyRegistry();
+	private ByteBuffer[] chunks = new ByteBuffer[0];
+	private long numOfEntries;
+
+	private int numOfPolls;
+	private String[] pollNames = new String[16];
+	// first entry of every poll, the entries of a poll end where the next poll starts
+	private long[] pollStarts = new long[17];
+
+	// running totals, indexed by party ID
+	private double[] totalSeats = new double[8];
+	private double[] totalPercentages = new double[8];
+	private int[] pollsWithParty = new int[8];
+
+	/**
+	 * Constructor for OffHeapPollList class.
+	 * @param seats = number of seats available in election that is covered by polls in the list.
+	 */
+	public OffHeapPollList(int seats) {
+		if (seats < 1) {
+			// the same default as PollList, so both lists draw the same polls the same way
+			System.out.println("Number of seats should be at least 1. "
+					+ "Number of seats set to 10.");
+			seats = 10;
+		}
+		numOfSeats = seats;
+	}
+
+	/**
+	 * Getter methods that return the number of polls, the number of parties
+	 * in all polls together, the number of seats and the registry of party names.
+	 */
+	public int getNumOfPolls() {
+		return numOfPolls;
+	}
+
+	public long getNumOfEntries() {
+		return numOfEntries;
+	}
+
+	public int getNumOfSeats() {
+		return numOfSeats;
+	}
+
+	public PartyRegistry getPartyRegistry() {
+		return registry;
+	}
+
+	/**
+	 * Method to copy the parties of a poll into the list. Later changes to the
+	 * poll are not seen by the list.
+	 * @param pollToAdd = poll to add, null is ignored.
+	 */
+	public void addPoll(Poll pollToAdd) {
+		if (pollToAdd == null) {
+			System.out.println("Error: Provided argument is of type 'null'.");
+			return;
+		}
+		startPoll(pollToAdd.getPollName());
+		Party[] parties = pollToAdd.getParties();
+		// parties are filled from the end of the array, copy them in the order they were added
+		for (int index = parties.length - 1; index >= 0; index--) {
+			if (parties[index] != null) {
+				addEntry(registry.register(parties[index].getName()),
+						parties[index].getProjectedNumberOfSeats(), parties[index].getProjectedPercentageOfVotes());
+			}
+		}
+		endPoll();
+	}
+
+	/**
+	 * Method to add a poll from primitive arrays, without creating a Poll or Party.
+	 * @param pollName = name of the poll.
+	 * @param partyIds = IDs of the parties in the registry of the list.
+	 * @param seats = projected seats of each party.
+	 * @param percentages = projected percentage of votes of each party, between 0 and 1.
+	 * @param numOfParties = number of parties to take from the arrays, parties 
+	 * with an unknown ID or invalid values are left out.
+	 */
+	public void addPoll(String pollName, int[] partyIds, float[] seats, float[] percentages, int numOfParties) {
+		startPoll(pollName);
+		for (int index = 0; index < numOfParties; index++) {
+			if (partyIds[index] < 0 || partyIds[index] >= registry.size()) {
+				System.out.println("Error: No party has ID " + partyIds[index] + ".");
+			}
+			else if (seats[index] < 0 || percentages[index] < 0 || percentages[index] > 1) {
+				System.out.println("Error: Party " + registry.getName(partyIds[index]) 
+						+ " has negative seats or a percentage outside 0 to 1.");
+			}
+			else {
+				addEntry(partyIds[index], seats[index], percentages[index]);
+			}
+		}
+		endPoll();
+	}
+
+	/**
+	 * Method to obtain a poll of the list as a Poll. A new Poll is created on
+	 * every call, changing it does not change the list.
+	 * @param index = position of the poll, in the order polls were added.
+	 * @return = poll at the position.
+	 */
+	public Poll getPoll(int index) {
+		if (index < 0 || index >= numOfPolls) {
+			throw new IndexOutOfBoundsException("Poll " + index + " is not in a list of " + numOfPolls + " polls");
+		}
+		long start = pollStarts[index];
+		long end = pollStarts[index + 1];
+		Poll poll = new Poll(pollNames[index], (int) Math.max(1, end - start));
+		for (long entry = start; entry < end; entry++) {
+			poll.addParty(new Party(registry.getName(partyIdAt(entry)), seatsAt(entry), percentageAt(entry)));
+		}
+		return poll;
+	}
+
+	/**
+	 * Method to obtain the names of all parties in the polls of the list.
+	 * @return = party names, spelled as they were first seen.
+	 */
+	public String[] getPartyNames() {
+		return registry.getNames();
+	}
+
+	/**
+	 * Method to calculate expected number of seats and percentage of votes for a party.
+	 * @param name = name of party to calculate expected results for.
+	 * @return = instance of Party with expected seats and percentage.
+	 */
+	public Party getAveragePartyData(String name) {
+		Party newParty = new Party(name);
+		int partyId = registry.idOf(name);
+		if (partyId >= 0 && partyId < pollsWithParty.length && pollsWithParty[partyId] != 0) {
+			newParty.setProjectedNumberOfSeats((float) (totalSeats[partyId] / pollsWithParty[partyId]));
+			newParty.setProjectedPercentageOfVotes((float) (totalPercentages[partyId] / pollsWithParty[partyId]));
+		}
+		else {
+			newParty.setProjectedNumberOfSeats(0f);
+			newParty.setProjectedPercentageOfVotes(0f);
+		}
+		return newParty;
+	}
+
+	/**
+	 * Method to obtain a poll that represents the aggregate of all polls in the list.
+	 * @param names = names of parties to include in the aggregate poll.
+	 * @return = aggregate poll with desired parties.
+	 */
+	public Poll getAggregatePoll(String[] names) {
+		Poll aggregatePoll = new Poll("Aggregate", names.length);
+		for (String party : names) {
+			aggregatePoll.addParty(getAveragePartyData(party));
+		}
+		return aggregatePoll;
+	}
+
+	/**
+	 * Method to read the aggregate of all polls into a reusable holder,
+	 * creating no objects once the holder has room for the parties.
+	 * @param partyIds = IDs of parties to include, unknown IDs are left out.
+	 * @param result = holder to fill, its previous content is replaced.
+	 */
+	public void fillAggregate(int[] partyIds, AggregateResult result) {
+		result.clear(registry, partyIds.length);
+		for (int partyId : partyIds) {
+			if (partyId < 0 || partyId >= registry.size()) {
+				continue;
+			}
+			if (partyId < pollsWithParty.length && pollsWithParty[partyId] != 0) {
+				result.add(partyId, (float) (totalSeats[partyId] / pollsWithParty[partyId]),
+						(float) (totalPercentages[partyId] / pollsWithParty[partyId]));
+			}
+			else {
+				result.add(partyId, 0f, 0f);
+			}
+		}
+	}
+
+	/**
+	 * Method to obtain a text-based visualization, based on seats, for each
+	 * poll in the list, the same as PollList.textVisualizationBySeats.
+	 * @return = text visualization of polls.
+	 */
+	public String textVisualizationBySeats() {
+		StringBuilder stringVisualization = new StringBuilder();
+		try {
+			textVisualizationBySeats(stringVisualization);
+		} catch (IOException e) { // a StringBuilder never throws
+			throw new UncheckedIOException(e);
+		}
+		return stringVisualization.toString();
+	}
+
+	/**
+	 * Method to write the text-based visualization, based on seats, for each
+	 * poll in the list, reading the parties straight from the buffers.
+	 * @param out = where the visualization is written to.
+	 * @throws IOException = if writing to out fails.
+	 */
+	public void textVisualizationBySeats(Appendable out) throws IOException {
+		visualization(out, false, PollList.seatsPerStar(numOfSeats));
+	}
+
+	/**
+	 * Method to obtain a text-based visualization, based on votes, for each
+	 * poll in the list, the same as PollList.textVisualizationByVotes.
+	 * @return = text visualization of polls.
+	 */
+	public String textVisualizationByVotes() {
+		StringBuilder stringVisualization = new StringBuilder();
+		try {
+			textVisualizationByVotes(stringVisualization);
+		} catch (IOException e) { // a StringBuilder never throws
+			throw new UncheckedIOException(e);
+		}
+		return stringVisualization.toString();
+	}
+
+	/**
+	 * Method to write the text-based visualization, based on votes, for each
+	 * poll in the list, reading the parties straight from the buffers.
+	 * @param out = where the visualization is written to.
+	 * @throws IOException = if writing to out fails.
+	 */
+	public void textVisualizationByVotes(Appendable out) throws IOException {
+		visualization(out, true, 100 / PollList.MAX_STARS_FOR_VISUALIZATION + 1);
+	}
+
+	/**
+	 * Method to copy the list into a growable PollList on the heap.
+	 * @return = poll list with the same polls.
+	 */
+	public PollList toPollList() {
+		PollList list = new PollList(numOfSeats);
+		for (int index = 0; index < numOfPolls; index++) {
+			list.addPoll(getPoll(index));
+		}
+		return list;
+	}
+
+	/**
+	 * Method to let go of the buffers, so the garbage collector can reclaim
+	 * them even while the list is still referenced. The list is empty 
+	 * afterwards, and Polls obtained from getPoll can still be used.
+	 */
+	public void close() {
+		chunks = new ByteBuffer[0];
+		numOfEntries = 0;
+		numOfPolls = 0;
+		pollNames = new String[16];
+		pollStarts = new long[17];
+		totalSeats = new double[8];
+		totalPercentages = new double[8];
+		pollsWithParty = new int[8];
+	}
+
+	// PRIVATE METHODS
+	private void visualization(Appendable out, boolean byVotes, double perStar) throws IOException {
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		for (int index = 0; index < numOfPolls; index++) {
+			out.append(pollNames[index]).append('\n');
+			for (long entry = pollStarts[index]; entry < pollStarts[index + 1]; entry++) {
+				float seats = seatsAt(entry);
+				// whole percent, as Party.toString prints it
+				int percentage = (int) (percentageAt(entry) * 100);
+				int printedStars = (int) Math.floor((byVotes ? percentage : seats) / perStar);
+				// same text as Party.textVisualizationBySeats and ByVotes, parties in this list have no colour
+				out.append(BarCache.bar(PollList.MAX_STARS_FOR_VISUALIZATION, printedStars)).append(' ')
+						.append(registry.getName(partyIdAt(entry))).append(" (")
+						.append(Integer.toString(percentage)).append("% of votes, ")
+						.append(Float.toString(seats)).append(" seats)\n");
+			}
+			out.append('\n');
+		}
+		if (Metrics.ENABLED) Metrics.POLL_LIST_VISUALIZATION_LATENCY.record(System.nanoTime() - start);
+	}
+
+	private void startPoll(String pollName) {
+		if (numOfPolls == pollNames.length) {
+			pollNames = Arrays.copyOf(pollNames, numOfPolls * 2);
+			pollStarts = Arrays.copyOf(pollStarts, numOfPolls * 2 + 1);
+		}
+		pollNames[numOfPolls] = pollName;
+		pollStarts[numOfPolls] = numOfEntries;
+	}
+
+	private void endPoll() {
+		numOfPolls++;
+		pollStarts[numOfPolls] = numOfEntries;
+		if (Metrics.ENABLED) Metrics.POLLS_ADDED.increment();
+	}
+
+	private void addEntry(int partyId, float seats, float percentage) {
+		int chunk = (int) (numOfEntries >>> CHUNK_SHIFT);
+		if (chunk == chunks.length) {
+			chunks = Arrays.copyOf(chunks, chunk + 1);
+			chunks[chunk] = ByteBuffer.allocateDirect(ENTRIES_PER_CHUNK * ENTRY_SIZE).order(ByteOrder.nativeOrder());
+		}
+		int offset = (int) (numOfEntries & (ENTRIES_PER_CHUNK - 1)) * ENTRY_SIZE;
+		chunks[chunk].putInt(offset, partyId);
+		chunks[chunk].putFloat(offset + 4, seats);
+		chunks[chunk].putFloat(offset + 8, percentage);
+		numOfEntries++;
+
+		if (partyId >= totalSeats.length) {
+			int newLength = Math.max(partyId + 1, totalSeats.length * 2);
+			totalSeats = Arrays.copyOf(totalSeats, newLength);
+			totalPercentages = Arrays.copyOf(totalPercentages, newLength);
+			pollsWithParty = Arrays.copyOf(pollsWithParty, newLength);
+		}
+		totalSeats[partyId] += seats;
+		totalPercentages[partyId] += percentage;
+		pollsWithParty[partyId]++;
+	}
+
+	private int partyIdAt(long entry) {
+		return chunks[(int) (entry >>> CHUNK_SHIFT)].getInt((int) (entry & (ENTRIES_PER_CHUNK - 1)) * ENTRY_SIZE);
+	}
+
+	private float seatsAt(long entry) {
+		return chunks[(int) (entry >>> CHUNK_SHIFT)].getFloat((int) (entry & (ENTRIES_PER_CHUNK - 1)) * ENTRY_SIZE + 4);
+	}
+
+	private float percentageAt(long entry) {
+		return chunks[(int) (entry >>> CHUNK_SHIFT)].getFloat((int) (entry & (ENTRIES_PER_CHUNK - 1)) * ENTRY_SIZE + 8);
+	}
+
+}
@@ -0,0 +1,71 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join task that aggregates a range of a poll array by splitting it in 
+ * halves until the pieces are small, aggregating each piece on its own and 
+ * merging the partial sums on the way back up.
+ */
+public class ParallelPollAggregation extends RecursiveTask<PollAggregator> {
+	
+	private static final long serialVersionUID = 1L;
+	// ranges with at most this many polls are aggregated sequentially
+	public static final int SEQUENTIAL_THRESHOLD = 4096;
+	
+	private Poll[] polls;
+	private int from;
+	private int to;
+	private String[] names;
+	
+	/**
+	 * Constructor for ParallelPollAggregation class.
+	 * @param polls = array of polls to aggregate, null entries are skipped. 
+	 * @param from = index of the first poll to aggregate. 
+	 * @param to = index after the last poll to aggregate. 
+	 * @param names = names of parties to aggregate. 
+	 */
+	public ParallelPollAggregation(Poll[] polls, int from, int to, String[] names) {
+		this.polls = polls;
+		this.from = from;
+		this.to = to;
+		this.names = names;
+	}
+	
+	/**
+	 * Method to aggregate a range of polls, using the common fork/join pool 
+	 * if the range is larger than SEQUENTIAL_THRESHOLD.
+	 * @param polls = array of polls to aggregate, null entries are skipped. 
+	 * @param from = index of the first poll to aggregate. 
+	 * @param to = index after the last poll to aggregate. 
+	 * @param names = names of parties to aggregate. 
+	 * @return = aggregator holding the sums of the range. 
+	 */
+	public static PollAggregator aggregate(Poll[] polls, int from, int to, String[] names) {
+		ParallelPollAggregation task = new ParallelPollAggregation(polls, from, to, names);
+		if (to - from <= SEQUENTIAL_THRESHOLD) {
+			return task.compute();
+		}
+		return ForkJoinPool.commonPool().invoke(task);
+	}
+	
+	@Override
+	protected PollAggregator compute() {
+		if (to - from <= SEQUENTIAL_THRESHOLD) {
+			PollAggregator aggregator = new PollAggregator(names);
+			for (int index = from; index < to; index++) {
+				aggregator.addPoll(polls[index]);
+			}
+			return aggregator;
+		}
+		
+		// split the range, work on the second half here while the first half is forked
+		int middle = (from + to) >>> 1;
+		ParallelPollAggregation firstHalf = new ParallelPollAggregation(polls, from, middle, names);
+		ParallelPollAggregation secondHalf = new ParallelPollAggregation(polls, middle, to, names);
+		firstHalf.fork();
+		PollAggregator result = secondHalf.compute();
+		result.merge(firstHalf.join());
+		return result;
+	}
+	
+}
@@ -1,291 +1,335 @@
-import java.awt.Color; 
-import java.lang.Math; 
-
-/**
- * The Party class is used to document and visualize 
- * the data pertaining to a political party.
- * 
- * @author Ray Zegrer 
- */
-public class Party {
-	
-	// INSTANCE VARIABLES
-	 private String name;
-	 private float projectedNumberOfSeats;
-	 private float projectedPercentageOfVotes;
-	 private Color partyColour;
-
-	 
-	 // GETTER METHODS
-	 /**
-	  * This method gets the party name
-	  * @return string party name
-	  */
-	 public String getName() {
-		 return name;
-	 }
-	 
-	 /**
-	  * This method gets the projected number of seats
-	  * @return projected number of seats as a float
-	  */
-	 public float getProjectedNumberOfSeats() {
-		 return projectedNumberOfSeats;
-	 }
-	 
-	 
-	 /**
-	  * This method gets the percentage of votes
-	  * @return projected percentage of votes as a float
-	  */
-	 public float getProjectedPercentageOfVotes() {
-		 return projectedPercentageOfVotes;
-	 }
-	 
-	 /**
-	  * This method gets the party colour
-	  * @return party colour
-	  */
-	 public Color getPartyColour() {
-	 	return partyColour;
-	 }
-	 
-	 // SETTER METHODS
-	 /**
-	  * This method sets the party name
-	  * @param n Party name as a string
-	  * @return nothing
-	  */
-	 public void setName(String n) {
-	  this.name = n;
-	 }
-	 
-	 /**
-	  * This method sets the expected number of seats
-	  * @param seat Expected seats as a float
-	  * @return nothing
-	  */
-	 public void setProjectedNumberOfSeats(float seat) {
-		 if(seat<0) {
-			 System.out.println("Error: cannot enter a negative seat value");
-		 }
-		 else
-			 this.projectedNumberOfSeats = seat;
-	 }
-	 
-	 /**
-	  * This method sets the expected percentage of votes
-	  * @param percentage Expected percentage as a float
-	  * @return nothing
-	  */
-	 public void setProjectedPercentageOfVotes(float percentage) {
-		 if (percentage>1 || percentage<0) {// if the value entered for percentage is over 100% or negative
-			 System.out.println("Error: cannot enter a percentage value over 100% (1.0) or under 0% (0.0)");
-			 percentage = 0;
-		 }
-		 else 
-			 this.projectedPercentageOfVotes = percentage;
-	 }
-	 
-	 /**
-	  * This method sets the party colour
-	  * @param colourValue Party colour as a Color value
-	  * @return nothing
-	  */
-	 public void setColour(Color colourValue) {
-		 int rgb = colourValue.getRGB();
-		 this.partyColour = new Color(rgb);
-	 }
-	 
-	 // CONSTRUCTORS
-	 /**
-	  * Constructor
-	  * takes one string argument and sets the party name
-	  * @param partyName 
-	  */
-	 public Party(String partyName){
-		 setName(partyName);
-	 }
-	 
-	 /**
-	  * Constructor
-	  * takes three arguments and sets all of the party instance variables, excluding colour
-	  * @param partyName Name of the party as a string
-	  * @param seats Number of projected seats as a float
-	  * @param percentage Percentage of projected votes as a float
-	  */
-	 public Party(String partyName, float seats, float percentage){	 
-		 setName(partyName);
-		 setProjectedNumberOfSeats(seats);
-		 setProjectedPercentageOfVotes(percentage);
-	 }
-	 
-	 // PARTY CLASS METHODS
-	 /**
-	  * This method is used to produce a string stating the data of the party
-	  * @param none
-	  * @returns String The name, colour (if available), percentage, and seats
-	  */
-	 public String toString(){
-		 String percent = ((int)(projectedPercentageOfVotes * 100)) + "%";
-		 String printedText, colour;
-		 if (partyColour != null) {
-			 int r = partyColour.getRed();
-			 int g = partyColour.getGreen();
-			 int b = partyColour.getBlue();
-			 colour = r+","+g+","+b;
-			 printedText = name+" (["+colour+"], "+percent+" of votes, "+projectedNumberOfSeats+" seats)";
-		 }
-		 else printedText= name+" ("+percent+" of votes, "+projectedNumberOfSeats+" seats)";
-		
-		 return printedText;
-	 }
-	 
-	 /**
-	  * This method calculates what percentage of seats a party is expected to win
-	  * @param val The total number of seats
-	  * @returns double The percentage as a decimal between 0 and 1
-	  */
-	 public double projectedPercentOfSeats(int val) {
-		 double percent;
-		 if (val>0) {
-			percent = projectedNumberOfSeats/val;
-		 }
-		 else {
-			 System.out.println("Error: number of seats must be at least 1");
-			 percent = 0.0;
-		 }
-		 return percent;
-	 }
-	 
-	 /**
-	  * This method prints a visualization of the proportion of 
-	  * seats a party is expected to win and prints a bar at the
-	  * point where a majority has been achieved, the remaining space
-	  * is left blank
-	  * 
-	  * @param maxStars the total number of stars that can be used to 
-	  * represent the total number of seats
-	  * @param perStar the number of seats that each star is worth
-	  * @returns String the visual representation of the expected proportion
-	  * of seats to be won by the party
-	  */
-	 public String textVisualizationBySeats(int maxStars, double perStar) {
-		 if(maxStars<0 || perStar<0){
-			 System.out.println("Error: cannot enter a negative value");
-			 return "";
-		 } else
-			 return visualization("seats", maxStars, perStar);
-	 }
-	 
-	 /**
-	  * This method performs the same work as textVisualizationBySeats but
-	  * represents vote percentage
-	  * 
-	  * @param maxStars the total number of stars that can be used to 
-	  * represent the total vote percentage
-	  * @param perStar the percentage that each star is worth
-	  * @returns String the visual representation of the expected proportion
-	  * of the vote to be won by the party
-	  */
-	 public String textVisualizationByVotes(int maxStars, double perStar) {
-		 if(maxStars<0 || perStar<0){
-			 System.out.println("Error: cannot enter a negative value");
-			 return "";
-		 } else
-			 return visualization("votes", maxStars, perStar);
-	 }
-	 
-	 //PRIVATE METHODS
-	 private String visualization(String type, int maxStars, double numOfItemsPerStar) {
-		 //determines which value to use to calculate the number of stars to 
-		 //be printed based on if the visualization is for seats or votes
-		 int printedStars;
-		 if (type == "seats") {
-			 printedStars = (int)Math.floor(projectedNumberOfSeats/numOfItemsPerStar);
-		 } 
-		 else {
-			 int percentage = (int)(projectedPercentageOfVotes * 100);
-			 printedStars = (int)Math.floor(percentage/numOfItemsPerStar);
-		 }
-		 
-		 /*
-		  * determines where the bar that represents the majority needs to 
-		  * be printed and how many blank spaces need to be represented
-		  */
-		 int blankSpace = maxStars - printedStars;
-		 int majority = (int) Math.ceil(maxStars/2.0);
-		 String visualToPrint;
-		 
-		 //calls on smaller methods based on whether the number of stars
-		 //is equal to, exceeds, or is smaller than the majority
-		 if(printedStars>majority) {
-			 visualToPrint = visForMajority(majority, printedStars, blankSpace);
-		 }
-		 else if(printedStars == majority) {
-			 visualToPrint = visForEqual(majority, printedStars, blankSpace);
-		 }
-		 else {
-			 visualToPrint = visForMinority(majority, printedStars, blankSpace);
-		 }
-		 
-		 //adds the remaining information to the star visual
-		 visualToPrint = visualToPrint + " " + toString(); 
-		 return visualToPrint;
-	 }
-	 
-	 private String visForMajority(int majority, int printedStars, int blankSpace){
-		 int starCounter = 0; int blankCounter = 0;
-		 String visual = "";
-		 while(starCounter<majority) { //prints the stars before the bar
-			 visual = visual  +"*"; 
-			 starCounter++; 
-		 }
-		 visual = visual + "|";
-		 starCounter = 0;
-		 while(starCounter<(printedStars-majority)) { //prints the stars after the bar
-			 visual = visual +"*";
-			 starCounter++;
-		 }
-		 while(blankCounter<blankSpace) { //prints the remaining blank spaces
-			 visual = visual + " ";
-			 blankCounter++;
-		 }
-		 return visual;
-	 }
-	 
-	 private String visForEqual(int majority, int printedStars, int blankSpace){
-		 int starCounter = 0; int blankCounter = 0;
-		 String visual = "";
-		 while(starCounter<majority) { //prints the stars
-			 visual = visual  +"*"; 
-			 starCounter++; 
-		 }
-		 visual = visual + "|";
-		 while(blankCounter<blankSpace) { //prints the blank spaces
-			 visual = visual + " ";
-			 blankCounter++;
-		 }
-		 return visual;
-	 }
-	 
-	 private String visForMinority(int majority, int printedStars, int blankSpace){
-		 int starCounter = 0; int blankCounter = 0;
-		 String visual = "";
-		 while(starCounter<printedStars) { //prints the stars
-			 visual = visual  +"*"; 
-			 starCounter++;
-		 }
-		 while(blankCounter<(blankSpace-majority)) { //prints the blank spaces before the bar
-			 visual = visual + " ";
-			 blankCounter++;
-		 }
-		 visual = visual + "|";
-		 blankCounter = 0;
-		 while(blankCounter<majority) { //prints the blank spaces after the bar
-			 visual = visual + " "; 
-			 blankCounter++;
-		 }
-		 return visual;
-	 }
+import java.awt.Color; 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.Math; 
+import java.util.Arrays;
+
+/**
+ * The Party class is used to document and visualize 
+ * the data pertaining to a political party.
+ * 
+ * @author Ray Zegrer 
+ */
+public class Party {
+	
+	// INSTANCE VARIABLES
+	 private String name;
+	 private float projectedNumberOfSeats;
+	 private float projectedPercentageOfVotes;
+	 private Color partyColour;
+	 // number of changes to the name, seats, percentage or colour, see getVersion
+	 private long version;
+	 // polls the party is in, told when the name, seats, percentage or colour change
+	 private Poll[] polls = NO_POLLS;
+	 private static final Poll[] NO_POLLS = new Poll[0];
+
+	 
+	 // GETTER METHODS
+	 /**
+	  * This method gets the party name
+	  * @return string party name
+	  */
+	 public String getName() {
+		 return name;
+	 }
+	 
+	 /**
+	  * This method gets the projected number of seats
+	  * @return projected number of seats as a float
+	  */
+	 public float getProjectedNumberOfSeats() {
+		 return projectedNumberOfSeats;
+	 }
+	 
+	 
+	 /**
+	  * This method gets the percentage of votes
+	  * @return projected percentage of votes as a float
+	  */
+	 public float getProjectedPercentageOfVotes() {
+		 return projectedPercentageOfVotes;
+	 }
+	 
+	 /**
+	  * This method gets the party colour
+	  * @return party colour
+	  */
+	 public Color getPartyColour() {
+	 	return partyColour;
+	 }
+	 
+	 /**
+	  * This method gets the version of the party, which grows every time its 
+	  * name, seats, percentage or colour are set. Versions of different parties are 
+	  * not related, so a version is only compared with an earlier version 
+	  * of the same party
+	  * @return version of the party
+	  */
+	 public long getVersion() {
+		 return version;
+	 }
+	 
+	 // SETTER METHODS
+	 /**
+	  * This method sets the party name
+	  * @param n Party name as a string
+	  * @return nothing
+	  */
+	 public void setName(String n) {
+	  String oldName = this.name;
+	  this.name = n;
+	  this.version++;
+	  changed(oldName, this.projectedNumberOfSeats, this.projectedPercentageOfVotes, this.partyColour);
+	 }
+	 
+	 /**
+	  * This method sets the expected number of seats
+	  * @param seat Expected seats as a float
+	  * @return nothing
+	  */
+	 public void setProjectedNumberOfSeats(float seat) {
+		 if(seat<0) {
+			 if (Metrics.ENABLED) Metrics.VALIDATION_REJECTIONS.increment();
+			 System.out.println("Error: cannot enter a negative seat value");
+		 }
+		 else {
+			 float oldSeats = this.projectedNumberOfSeats;
+			 this.projectedNumberOfSeats = seat;
+			 this.version++;
+			 changed(this.name, oldSeats, this.projectedPercentageOfVotes, this.partyColour);
+		 }
+	 }
+	 
+	 /**
+	  * This method sets the expected percentage of votes
+	  * @param percentage Expected percentage as a float
+	  * @return nothing
+	  */
+	 public void setProjectedPercentageOfVotes(float percentage) {
+		 if (percentage>1 || percentage<0) {// if the value entered for percentage is over 100% or negative
+			 if (Metrics.ENABLED) Metrics.VALIDATION_REJECTIONS.increment();
+			 System.out.println("Error: cannot enter a percentage value over 100% (1.0) or under 0% (0.0)");
+			 percentage = 0;
+		 }
+		 else {
+			 float oldPercentage = this.projectedPercentageOfVotes;
+			 this.projectedPercentageOfVotes = percentage;
+			 this.version++;
+			 changed(this.name, this.projectedNumberOfSeats, oldPercentage, this.partyColour);
+		 }
+	 }
+	 
+	 /**
+	  * This method sets the party colour
+	  * @param colourValue Party colour as a Color value
+	  * @return nothing
+	  */
+	 public void setColour(Color colourValue) {
+		 int rgb = colourValue.getRGB();
+		 Color oldColour = this.partyColour;
+		 this.partyColour = new Color(rgb);
+		 //the colour is printed by toString, so the polls have to redraw the party
+		 this.version++;
+		 changed(this.name, this.projectedNumberOfSeats, this.projectedPercentageOfVotes, oldColour);
+	 }
+	 
+	 /**
+	  * This method records that the party was added to a poll, so the poll
+	  * is told when the party changes
+	  * @param poll Poll the party was added to
+	  */
+	 void addPoll(Poll poll) {
+		 Poll[] newPolls = Arrays.copyOf(this.polls, this.polls.length+1);
+		 newPolls[this.polls.length] = poll;
+		 this.polls = newPolls;
+	 }
+	 
+	 /**
+	  * This method records that the party was replaced in a poll
+	  * @param poll Poll the party is no longer in
+	  */
+	 void removePoll(Poll poll) {
+		 for (int index = 0; index < this.polls.length; index++) {
+			 if (this.polls[index] == poll) {
+				 Poll[] newPolls = new Poll[this.polls.length-1];
+				 System.arraycopy(this.polls, 0, newPolls, 0, index);
+				 System.arraycopy(this.polls, index+1, newPolls, index, newPolls.length-index);
+				 this.polls = newPolls;
+				 return;
+			 }
+		 }
+	 }
+	 
+	 // CONSTRUCTORS
+	 /**
+	  * Constructor
+	  * takes one string argument and sets the party name
+	  * @param partyName 
+	  */
+	 public Party(String partyName){
+		 setName(partyName);
+	 }
+	 
+	 /**
+	  * Constructor
+	  * takes three arguments and sets all of the party instance variables, excluding colour
+	  * @param partyName Name of the party as a string
+	  * @param seats Number of projected seats as a float
+	  * @param percentage Percentage of projected votes as a float
+	  */
+	 public Party(String partyName, float seats, float percentage){	 
+		 setName(partyName);
+		 setProjectedNumberOfSeats(seats);
+		 setProjectedPercentageOfVotes(percentage);
+	 }
+	 
+	 // PARTY CLASS METHODS
+	 /**
+	  * This method is used to produce a string stating the data of the party
+	  * @param none
+	  * @returns String The name, colour (if available), percentage, and seats
+	  */
+	 public String toString(){
+		 String percent = ((int)(projectedPercentageOfVotes * 100)) + "%";
+		 String printedText, colour;
+		 if (partyColour != null) {
+			 int r = partyColour.getRed();
+			 int g = partyColour.getGreen();
+			 int b = partyColour.getBlue();
+			 colour = r+","+g+","+b;
+			 printedText = name+" (["+colour+"], "+percent+" of votes, "+projectedNumberOfSeats+" seats)";
+		 }
+		 else printedText= name+" ("+percent+" of votes, "+projectedNumberOfSeats+" seats)";
+		
+		 return printedText;
+	 }
+	 
+	 /**
+	  * This method calculates what percentage of seats a party is expected to win
+	  * @param val The total number of seats
+	  * @returns double The percentage as a decimal between 0 and 1
+	  */
+	 public double projectedPercentOfSeats(int val) {
+		 double percent;
+		 if (val>0) {
+			percent = projectedNumberOfSeats/val;
+		 }
+		 else {
+			 System.out.println("Error: number of seats must be at least 1");
+			 percent = 0.0;
+		 }
+		 return percent;
+	 }
+	 
+	 /**
+	  * This method prints a visualization of the proportion of 
+	  * seats a party is expected to win and prints a bar at the
+	  * point where a majority has been achieved, the remaining space
+	  * is left blank
+	  * 
+	  * @param maxStars the total number of stars that can be used to 
+	  * represent the total number of seats
+	  * @param perStar the number of seats that each star is worth
+	  * @returns String the visual representation of the expected proportion
+	  * of seats to be won by the party
+	  */
+	 public String textVisualizationBySeats(int maxStars, double perStar) {
+		 StringBuilder visual = new StringBuilder();
+		 try {
+			 textVisualizationBySeats(visual, maxStars, perStar);
+		 } catch (IOException e) { // a StringBuilder never throws
+			 throw new UncheckedIOException(e);
+		 }
+		 return visual.toString();
+	 }
+	 
+	 /**
+	  * This method performs the same work as textVisualizationBySeats but
+	  * writes the visualization to the given destination instead of
+	  * building a string
+	  * 
+	  * @param out where the visualization is written to
+	  * @param maxStars the total number of stars that can be used to 
+	  * represent the total number of seats
+	  * @param perStar the number of seats that each star is worth
+	  * @throws IOException if writing to out fails
+	  */
+	 public void textVisualizationBySeats(Appendable out, int maxStars, double perStar) throws IOException {
+		 if(maxStars<0 || perStar<0){
+			 System.out.println("Error: cannot enter a negative value");
+		 } else
+			 visualization(out, "seats", maxStars, perStar);
+	 }
+	 
+	 /**
+	  * This method performs the same work as textVisualizationBySeats but
+	  * represents vote percentage
+	  * 
+	  * @param maxStars the total number of stars that can be used to 
+	  * represent the total vote percentage
+	  * @param perStar the percentage that each star is worth
+	  * @returns String the visual representation of the expected proportion
+	  * of the vote to be won by the party
+	  */
+	 public String textVisualizationByVotes(int maxStars, double perStar) {
+		 StringBuilder visual = new StringBuilder();
+		 try {
+			 textVisualizationByVotes(visual, maxStars, perStar);
+		 } catch (IOException e) { // a StringBuilder never throws
+			 throw new UncheckedIOException(e);
+		 }
+		 return visual.toString();
+	 }
+	 
+	 /**
+	  * This method performs the same work as textVisualizationByVotes but
+	  * writes the visualization to the given destination instead of
+	  * building a string
+	  * 
+	  * @param out where the visualization is written to
+	  * @param maxStars the total number of stars that can be used to 
+	  * represent the total vote percentage
+	  * @param perStar the percentage that each star is worth
+	  * @throws IOException if writing to out fails
+	  */
+	 public void textVisualizationByVotes(Appendable out, int maxStars, double perStar) throws IOException {
+		 if(maxStars<0 || perStar<0){
+			 System.out.println("Error: cannot enter a negative value");
+		 } else
+			 visualization(out, "votes", maxStars, perStar);
+	 }
+	 
+	 //PRIVATE METHODS
+	 /**
+	  * This method tells the polls the party is in that it changed, giving
+	  * them a copy of the party as it was before the change
+	  */
+	 private void changed(String oldName, float oldSeats, float oldPercentage, Color oldColour) {
+		 if (this.polls.length == 0) return;
+		 Party before = new Party(oldName);
+		 before.projectedNumberOfSeats = oldSeats;
+		 before.projectedPercentageOfVotes = oldPercentage;
+		 before.partyColour = oldColour;
+		 for (Poll poll : this.polls) {
+			 poll.partyChanged(before, this);
+		 }
+	 }
+	 
+	 private void visualization(Appendable out, String type, int maxStars, double numOfItemsPerStar) throws IOException {
+		 //determines which value to use to calculate the number of stars to 
+		 //be printed based on if the visualization is for seats or votes
+		 int printedStars;
+		 if (type == "seats") {
+			 printedStars = (int)Math.floor(projectedNumberOfSeats/numOfItemsPerStar);
+		 } 
+		 else {
+			 int percentage = (int)(projectedPercentageOfVotes * 100);
+			 printedStars = (int)Math.floor(percentage/numOfItemsPerStar);
+		 }
+		 
+		 //the bar is shared between all parties with the same number of stars,
+		 //then the remaining information is added to the star visual
+		 out.append(BarCache.bar(maxStars, printedStars));
+		 out.append(' ').append(toString());
+	 }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Class that gives every party name a dense int ID, starting at 0 in the
+ * order the names are first registered. Names are compared ignoring case,
+ * so "NDP" and "ndp" get the same ID. The polls of a PollList share the
+ * registry of the list, so aggregates can be kept in arrays indexed by ID
+ * instead of being looked up by name.
+ */
+public class PartyRegistry {
+
+	private String[] names = new String[8];
+	private int numOfParties;
+	// maps lower case party names to their ID
+	private HashMap<String, Integer> ids = new HashMap<String, Integer>();
+
+	/**
+	 * Method to obtain the ID of a party, giving it the next ID if the name is new.
+	 * @param name = name of the party.
+	 * @return = ID of the party.
+	 */
+	public int register(String name) {
+		String key = Poll.partyKey(name);
+		Integer id = ids.get(key);
+		if (id != null) {
+			return id;
+		}
+		if (numOfParties == names.length) {
+			names = Arrays.copyOf(names, names.length * 2);
+		}
+		names[numOfParties] = name;
+		ids.put(key, numOfParties);
+		return numOfParties++;
+	}
+
+	/**
+	 * Method to obtain the IDs of several parties, registering new names.
+	 * @param partyNames = names of the parties.
+	 * @return = IDs of the parties, in the same order.
+	 */
+	public int[] register(String[] partyNames) {
+		int[] partyIds = new int[partyNames.length];
+		for (int index = 0; index < partyNames.length; index++) {
+			partyIds[index] = register(partyNames[index]);
+		}
+		return partyIds;
+	}
+
+	/**
+	 * Method to obtain the ID of a party without registering it.
+	 * @param name = name of the party.
+	 * @return = ID of the party, or -1 if the name was never registered.
+	 */
+	public int idOf(String name) {
+		Integer id = (name == null) ? null : ids.get(Poll.partyKey(name));
+		return (id == null) ? -1 : id;
+	}
+
+	/**
+	 * Method to obtain the name of a party, spelled as it was first registered.
+	 * @param id = ID of the party.
+	 * @return = name of the party, or null if no party has the ID.
+	 */
+	public String getName(int id) {
+		return (id >= 0 && id < numOfParties) ? names[id] : null;
+	}
+
+	/**
+	 * Method to obtain the number of registered parties, every ID is below it.
+	 * @return = number of registered parties.
+	 */
+	public int size() {
+		return numOfParties;
+	}
+
+	/**
+	 * Method to obtain the names of all registered parties, indexed by ID.
+	 * @return = names of the registered parties.
+	 */
+	public String[] getNames() {
+		return Arrays.copyOf(names, numOfParties);
+	}
+
+}
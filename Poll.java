@@ -1,141 +1,443 @@
-/**
- * Class that represents a poll of an election, consists of a name for the poll
- * an array of the parties in the poll, and the number of parties in the poll.
- * 
- * @author Mackenzie Breithaupt
- */
-public class Poll {
-
-	// Variables
-	private String name;
-	private Party[] parties = new Party[10]; //sets default size of 10
-	private int numPartiesInPoll;
-	
-	// Constructors
-	/**
-	 * Constructor 
-	 * @param name Set the name of the poll.
-	 * @param maxParties Set the max number of parties in the poll, with minimum of 1 party.
-	 */
-	public Poll(String name, int maxParties) {
-		// Sets name of the poll
-		this.name = name; 
-		// Sets default size of the poll
-		if (1<=maxParties) { 
-			parties = new Party[maxParties];
-		}
-		else System.out.println("Poll size must be greater than 1.");
-	}
-	
-	// Methods
-	/**
-	 * This method gets the name of the poll
-	 * @return The name of the poll
-	 */
-	public String getPollName() {
-		return this.name;
-	}
-	
-	/**
-	 * This method gets the list of parties in the poll
-	 * @return list of parties
-	 */
-	public Party[] getParties() {
-		return this.parties;
-	}
-	
-	/**
-	 * This method gets the number of parties in the poll
-	 * @return Number of parties
-	 */
-	public int getNumberOfParties() {
-		return this.numPartiesInPoll;
-	}
-	
-	/**
-	 * This method returns a string representation of the Poll
-	 * @return String String representation of the poll
-	 */
-	public String toString() {
-		String partyRepresentation = "\n";
-		for (int index = this.parties.length-1; index>=0; index--) {
-			if (this.parties[index] != null) partyRepresentation += this.parties[index]+"\n";
-		}
-		// Name of the poll followed by each of the parties name
-		return this.name + partyRepresentation;
-	}
-	
-	/**
-	 * This method adds a party to the poll
-	 * @param partyToAdd Party to add
-	 */
-	public void addParty(Party partyToAdd) {
-		for (int index = this.parties.length-1; index >= 0 && partyToAdd!=null; index--) {
-			// Checks if location in parties list is empty and adds the party
-			if (this.parties[index] == null) {
-				this.parties[index] = partyToAdd;
-				this.numPartiesInPoll++;
-				partyToAdd=null;
-			}
-			// Checks if location in parties list the same as the party to add and replaces it
-			else if (this.parties[index].getName().equalsIgnoreCase(partyToAdd.getName().toLowerCase())) {
-				this.parties[index] = partyToAdd;
-				partyToAdd=null;
-			}
-			else if (index==0) System.out.println("Poll Is Full, Cannot Add Another Party.");
-		}
-	  }
-	
-	/**
-	 * This method gets a specific party in the poll
-	 * @param nameOfParty Name of party to retrieve
-	 * @return Party Party requested, or null if the party isn't in the poll
-	 */
-	public Party getParty(String nameOfParty) {
-		for (int index = this.parties.length-1; index>=0; index--) {
-				// Checks if there is a party with the same name in the party list
-				if (this.parties[index].getName().equalsIgnoreCase(nameOfParty) && this.parties[index]!=null) {
-					return this.parties[index];
-				}
-			}
-		System.out.println("No Party With Name '"+nameOfParty+"' Is In This Poll");
-		return null;
-	}
-	
-	/**
-	 * This method provides a String representation of the poll by seats,
-	 * the first line being the poll name, and each next line a party in the poll
-	 * @param maxStars Max stars a party can get
-	 * @param numOfSeatsPerStar Number of seats per star
-	 * @return String String representation of the poll by seats
-	 */
-	public String textVisualizationBySeats(int maxStars, double numOfSeatsPerStar) {
-		String partyRepresentation = "";
-		for (int index = this.parties.length-1; index>=0; index--) {
-			if (this.parties[index] != null) {
-				// Uses visualization method from Party class to build visual for the whole poll
-				partyRepresentation += this.parties[index].textVisualizationBySeats(maxStars, numOfSeatsPerStar) + "\n";
-			}
-		}
-		return this.name +"\n"+ partyRepresentation;
-	}
-	
-	/**
-	 * This method provides a String representation of the poll by votes,
-	 * the first line being the poll name, and each next line a party in the poll
-	 * @param maxStars Max stars a party can get
-	 * @param percentOfVotesPerStar Number of seats per star
-	 * @return String String representation of the poll by votes
-	 */
-	public String textVisualizationByVotes(int maxStars, double percentOfVotesPerStar) {
-		String partyRepresentation = "";
-		for (int index = this.parties.length-1; index>=0; index--) {
-			if (this.parties[index] != null) {
-				// Uses visualization method from Party class to build visual for the whole poll
-				partyRepresentation += this.parties[index].textVisualizationByVotes(maxStars, percentOfVotesPerStar)+"\n";
-			}
-		}
-		return this.name +"\n"+ partyRepresentation;
-	}
-}
-	
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Class that represents a poll of an election, consists of a name for the poll
+ * an array of the parties in the poll, and the number of parties in the poll.
+ * A poll can also record how many people were sampled and when it was fielded,
+ * these are used to weigh polls against each other when aggregating.
+ * 
+ * @author Mackenzie Breithaupt
+ */
+public class Poll {
+
+	// Variables
+	private String name;
+	private Party[] parties = new Party[10]; //sets default size of 10
+	private int numPartiesInPoll;
+	// Maps lower case party names to their index in the parties array
+	private HashMap<String, Integer> partyIndex = new HashMap<String, Integer>();
+	private PollChangeListener[] listeners = new PollChangeListener[0];
+	// Party IDs, set once the poll is added to a PollList
+	private PartyRegistry registry;
+	private int[] partyIds; // ID of the party in each slot of the parties array, -1 when empty
+	private int[] slotsById = new int[0]; // slot of each party ID, -1 when the party isn't in the poll
+	private int sampleSize; // 0 when unknown
+	private LocalDate fieldedDate; // null when unknown
+	// number of parties added, replaced or set, see getVersion
+	private long version;
+	
+	// Constructors
+	/**
+	 * Constructor 
+	 * @param name Set the name of the poll.
+	 * @param maxParties Set the max number of parties in the poll, with minimum of 1 party.
+	 */
+	public Poll(String name, int maxParties) {
+		// Sets name of the poll
+		this.name = name; 
+		// Sets default size of the poll
+		if (1<=maxParties) { 
+			parties = new Party[maxParties];
+		}
+		else System.out.println("Poll size must be greater than 1.");
+	}
+	
+	// Methods
+	/**
+	 * This method gets the name of the poll
+	 * @return The name of the poll
+	 */
+	public String getPollName() {
+		return this.name;
+	}
+	
+	/**
+	 * This method gets the list of parties in the poll
+	 * @return list of parties
+	 */
+	public Party[] getParties() {
+		return this.parties;
+	}
+	
+	/**
+	 * This method gets the version of the poll, which grows every time a 
+	 * party is added or replaced and every time the name, seats or percentage 
+	 * of one of its parties is set, so it tells whether anything drawn from 
+	 * the poll is out of date. Versions of different polls are not related, 
+	 * so a version is only compared with an earlier version of the same poll
+	 * @return Version of the poll
+	 */
+	public long getVersion() {
+		return this.version;
+	}
+	
+	/**
+	 * This method gets the number of people sampled by the poll
+	 * @return Sample size, or 0 if it is unknown
+	 */
+	public int getSampleSize() {
+		return this.sampleSize;
+	}
+	
+	/**
+	 * This method sets the number of people sampled by the poll,
+	 * it should be set before the poll is added to a PollList
+	 * @param sampleSize Sample size, 0 if it is unknown
+	 */
+	public void setSampleSize(int sampleSize) {
+		if (sampleSize < 0) {
+			System.out.println("Error: sample size cannot be negative");
+		}
+		else this.sampleSize = sampleSize;
+	}
+	
+	/**
+	 * This method gets the date the poll was fielded
+	 * @return Fielded date, or null if it is unknown
+	 */
+	public LocalDate getFieldedDate() {
+		return this.fieldedDate;
+	}
+	
+	/**
+	 * This method sets the date the poll was fielded,
+	 * it should be set before the poll is added to a PollList
+	 * @param fieldedDate Fielded date, null if it is unknown
+	 */
+	public void setFieldedDate(LocalDate fieldedDate) {
+		this.fieldedDate = fieldedDate;
+	}
+	
+	/**
+	 * This method gets the number of parties in the poll
+	 * @return Number of parties
+	 */
+	public int getNumberOfParties() {
+		return this.numPartiesInPoll;
+	}
+	
+	/**
+	 * This method returns a string representation of the Poll
+	 * @return String String representation of the poll
+	 */
+	public String toString() {
+		String partyRepresentation = "\n";
+		for (int index = this.parties.length-1; index>=0; index--) {
+			if (this.parties[index] != null) partyRepresentation += this.parties[index]+"\n";
+		}
+		// Name of the poll followed by each of the parties name
+		return this.name + partyRepresentation;
+	}
+	
+	/**
+	 * This method adds a party to the poll, a party with the same name
+	 * (ignoring case) already in the poll is replaced
+	 * @param partyToAdd Party to add
+	 */
+	public void addParty(Party partyToAdd) {
+		if (partyToAdd == null) return;
+		String key = partyKey(partyToAdd.getName());
+		Integer index = this.partyIndex.get(key);
+		Party oldParty = null;
+		// Checks if a party with the same name is in the poll and replaces it
+		if (index != null) {
+			oldParty = this.parties[index];
+			this.parties[index] = partyToAdd;
+			oldParty.removePoll(this);
+		}
+		// Checks if there is an empty location left, parties are filled from the end of the list
+		else if (this.numPartiesInPoll < this.parties.length) {
+			int emptyIndex = this.parties.length-1-this.numPartiesInPoll;
+			this.parties[emptyIndex] = partyToAdd;
+			this.partyIndex.put(key, emptyIndex);
+			this.numPartiesInPoll++;
+			if (this.registry != null) recordPartyId(emptyIndex);
+		}
+		else {
+			System.out.println("Poll Is Full, Cannot Add Another Party.");
+			return;
+		}
+		partyToAdd.addPoll(this);
+		this.version++;
+		if (Metrics.ENABLED) Metrics.PARTIES_ADDED.increment();
+		// Tells the listeners about the change
+		for (PollChangeListener listener : this.listeners) {
+			listener.partyChanged(this, oldParty, partyToAdd);
+		}
+	  }
+	
+	/**
+	 * This method registers a listener that is told every time a party is 
+	 * added to the poll or replaced. A listener registered twice is told twice.
+	 * @param listener Listener to add
+	 */
+	public void addChangeListener(PollChangeListener listener) {
+		if (listener == null) return;
+		PollChangeListener[] newListeners = Arrays.copyOf(this.listeners, this.listeners.length+1);
+		newListeners[this.listeners.length] = listener;
+		this.listeners = newListeners;
+	}
+	
+	/**
+	 * This method removes one registration of a listener from the poll
+	 * @param listener Listener to remove
+	 */
+	public void removeChangeListener(PollChangeListener listener) {
+		for (int index = 0; index < this.listeners.length; index++) {
+			if (this.listeners[index] == listener) {
+				PollChangeListener[] newListeners = new PollChangeListener[this.listeners.length-1];
+				System.arraycopy(this.listeners, 0, newListeners, 0, index);
+				System.arraycopy(this.listeners, index+1, newListeners, index, newListeners.length-index);
+				this.listeners = newListeners;
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * This method gets a specific party in the poll
+	 * @param nameOfParty Name of party to retrieve
+	 * @return Party Party requested, or null if the party isn't in the poll
+	 */
+	public Party getParty(String nameOfParty) {
+		Integer index = (nameOfParty == null) ? null : this.partyIndex.get(partyKey(nameOfParty));
+		if (index != null) {
+			if (Metrics.ENABLED) Metrics.PARTY_LOOKUP_HITS.increment();
+			return this.parties[index];
+		}
+		if (Metrics.ENABLED) Metrics.PARTY_LOOKUP_MISSES.increment();
+		System.out.println("No Party With Name '"+nameOfParty+"' Is In This Poll");
+		return null;
+	}
+	
+	/**
+	 * This method gets a specific party in the poll by the ID it has in the
+	 * PartyRegistry of the PollList the poll was added to
+	 * @param partyId ID of party to retrieve
+	 * @return Party Party requested, or null if the party isn't in the poll
+	 */
+	public Party getParty(int partyId) {
+		Party party = findParty(partyId);
+		if (party != null) {
+			if (Metrics.ENABLED) Metrics.PARTY_LOOKUP_HITS.increment();
+			return party;
+		}
+		if (Metrics.ENABLED) Metrics.PARTY_LOOKUP_MISSES.increment();
+		System.out.println("No Party With ID "+partyId+" Is In This Poll");
+		return null;
+	}
+	
+	/**
+	 * This method finds a party by ID without reporting a missing party,
+	 * for scans over many polls
+	 * @param partyId ID of party to find
+	 * @return Party Party found, or null if the party isn't in the poll
+	 */
+	Party findParty(int partyId) {
+		if (partyId >= 0 && partyId < this.slotsById.length && this.slotsById[partyId] >= 0) {
+			return this.parties[this.slotsById[partyId]];
+		}
+		return null;
+	}
+	
+	/**
+	 * This method is called by a party in the poll after its name, seats,
+	 * percentage or colour changed, it keeps the name index and party IDs up 
+	 * to date and tells the listeners, as if the party had been replaced. A 
+	 * party renamed to the name of another party in the poll replaces that
+	 * party, the same way addParty replaces a party with the same name
+	 * @param before Copy of the party as it was before the change
+	 * @param party Party that changed
+	 */
+	void partyChanged(Party before, Party party) {
+		int slot = this.parties.length-1;
+		while (slot >= 0 && this.parties[slot] != party) slot--;
+		if (slot < 0) return;
+		String oldKey = partyKey(before.getName());
+		String newKey = partyKey(party.getName());
+		Party replaced = null;
+		if (!oldKey.equals(newKey)) {
+			if (Integer.valueOf(slot).equals(this.partyIndex.get(oldKey))) this.partyIndex.remove(oldKey);
+			Integer other = this.partyIndex.get(newKey);
+			if (other != null && other != slot) {
+				replaced = this.parties[other];
+				removeSlot(other);
+				if (slot < other) slot++; // parties added before the removed one moved up
+				replaced.removePoll(this);
+			}
+			this.partyIndex.put(newKey, slot);
+			if (this.registry != null) recordPartyId(slot);
+		}
+		this.version++;
+		// Tells the listeners about the removed party first, then about the renamed one
+		for (PollChangeListener listener : this.listeners) {
+			if (replaced != null) listener.partyChanged(this, replaced, null);
+			listener.partyChanged(this, before, party);
+		}
+	}
+	
+	/**
+	 * This method takes a party out of the parties array, moving the parties
+	 * added before it up one slot so the array stays filled from the end
+	 * @param removedSlot Slot of the party to remove
+	 */
+	private void removeSlot(int removedSlot) {
+		int first = this.parties.length-this.numPartiesInPoll;
+		if (this.registry != null) {
+			int removedId = this.partyIds[removedSlot];
+			if (removedId >= 0 && this.slotsById[removedId] == removedSlot) this.slotsById[removedId] = -1;
+		}
+		for (int index = removedSlot; index > first; index--) {
+			this.parties[index] = this.parties[index-1];
+			this.partyIndex.put(partyKey(this.parties[index].getName()), index);
+			if (this.registry != null) {
+				this.partyIds[index] = this.partyIds[index-1];
+				this.slotsById[this.partyIds[index]] = index;
+			}
+		}
+		this.parties[first] = null;
+		if (this.registry != null) this.partyIds[first] = -1;
+		this.numPartiesInPoll--;
+	}
+	
+	/**
+	 * This method gives the poll the registry its party IDs come from, only
+	 * the first registry given is kept
+	 * @param partyRegistry Registry of the PollList the poll is added to
+	 */
+	void bindPartyRegistry(PartyRegistry partyRegistry) {
+		if (this.registry != null || partyRegistry == null) return;
+		this.registry = partyRegistry;
+		this.partyIds = new int[this.parties.length];
+		Arrays.fill(this.partyIds, -1);
+		for (int index = 0; index < this.parties.length; index++) {
+			if (this.parties[index] != null) recordPartyId(index);
+		}
+	}
+	
+	/**
+	 * This method gets the registry the party IDs of the poll come from
+	 * @return Registry, or null if the poll was not added to a PollList
+	 */
+	PartyRegistry getPartyRegistry() {
+		return this.registry;
+	}
+	
+	/**
+	 * This method gets the ID of the party in a slot of the parties array
+	 * @param slot Index in the array returned by getParties
+	 * @return ID of the party, -1 if the slot is empty, only valid if a registry is bound
+	 */
+	int partyIdAt(int slot) {
+		return this.partyIds[slot];
+	}
+	
+	/**
+	 * This method registers the party in a slot and remembers its ID
+	 * @param slot Index of the party in the parties array
+	 */
+	private void recordPartyId(int slot) {
+		int oldId = this.partyIds[slot];
+		if (oldId >= 0 && this.slotsById[oldId] == slot) this.slotsById[oldId] = -1;
+		int partyId = this.registry.register(this.parties[slot].getName());
+		if (partyId >= this.slotsById.length) {
+			// grows with the registry, IDs are handed out from 0 upwards
+			int oldLength = this.slotsById.length;
+			this.slotsById = Arrays.copyOf(this.slotsById, Math.max(partyId + 1, this.registry.size()));
+			Arrays.fill(this.slotsById, oldLength, this.slotsById.length, -1);
+		}
+		this.partyIds[slot] = partyId;
+		this.slotsById[partyId] = slot;
+	}
+	
+	/**
+	 * This method gives the key used to index a party name, names are
+	 * compared ignoring case, the same way in every locale
+	 * @param nameOfParty Name of the party
+	 * @return Lower case party name
+	 */
+	static String partyKey(String nameOfParty) {
+		return nameOfParty.toLowerCase(Locale.ROOT);
+	}
+	
+	/**
+	 * This method provides a String representation of the poll by seats,
+	 * the first line being the poll name, and each next line a party in the poll
+	 * @param maxStars Max stars a party can get
+	 * @param numOfSeatsPerStar Number of seats per star
+	 * @return String String representation of the poll by seats
+	 */
+	public String textVisualizationBySeats(int maxStars, double numOfSeatsPerStar) {
+		StringBuilder pollRepresentation = new StringBuilder();
+		try {
+			textVisualizationBySeats(pollRepresentation, maxStars, numOfSeatsPerStar);
+		} catch (IOException e) { // a StringBuilder never throws
+			throw new UncheckedIOException(e);
+		}
+		return pollRepresentation.toString();
+	}
+	
+	/**
+	 * This method writes the representation of textVisualizationBySeats 
+	 * to the given destination instead of building a String
+	 * @param out Where the representation is written to
+	 * @param maxStars Max stars a party can get
+	 * @param numOfSeatsPerStar Number of seats per star
+	 * @throws IOException If writing to out fails
+	 */
+	public void textVisualizationBySeats(Appendable out, int maxStars, double numOfSeatsPerStar) throws IOException {
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		out.append(this.name).append('\n');
+		for (int index = this.parties.length-1; index>=0; index--) {
+			if (this.parties[index] != null) {
+				// Uses visualization method from Party class to build visual for the whole poll
+				this.parties[index].textVisualizationBySeats(out, maxStars, numOfSeatsPerStar);
+				out.append('\n');
+			}
+		}
+		if (Metrics.ENABLED) Metrics.POLL_VISUALIZATION_LATENCY.record(System.nanoTime() - start);
+	}
+	
+	/**
+	 * This method provides a String representation of the poll by votes,
+	 * the first line being the poll name, and each next line a party in the poll
+	 * @param maxStars Max stars a party can get
+	 * @param percentOfVotesPerStar Number of seats per star
+	 * @return String String representation of the poll by votes
+	 */
+	public String textVisualizationByVotes(int maxStars, double percentOfVotesPerStar) {
+		StringBuilder pollRepresentation = new StringBuilder();
+		try {
+			textVisualizationByVotes(pollRepresentation, maxStars, percentOfVotesPerStar);
+		} catch (IOException e) { // a StringBuilder never throws
+			throw new UncheckedIOException(e);
+		}
+		return pollRepresentation.toString();
+	}
+	
+	/**
+	 * This method writes the representation of textVisualizationByVotes 
+	 * to the given destination instead of building a String
+	 * @param out Where the representation is written to
+	 * @param maxStars Max stars a party can get
+	 * @param percentOfVotesPerStar Percentage of votes per star
+	 * @throws IOException If writing to out fails
+	 */
+	public void textVisualizationByVotes(Appendable out, int maxStars, double percentOfVotesPerStar) throws IOException {
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		out.append(this.name).append('\n');
+		for (int index = this.parties.length-1; index>=0; index--) {
+			if (this.parties[index] != null) {
+				// Uses visualization method from Party class to build visual for the whole poll
+				this.parties[index].textVisualizationByVotes(out, maxStars, percentOfVotesPerStar);
+				out.append('\n');
+			}
+		}
+		if (Metrics.ENABLED) Metrics.POLL_VISUALIZATION_LATENCY.record(System.nanoTime() - start);
+	}
+}
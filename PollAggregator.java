@@ -0,0 +1,379 @@
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Class that accumulates the seats and percentage of votes of parties
+ * over any number of polls, so that averages can be read without going
+ * over the polls again. An aggregator either tracks a fixed set of parties
+ * or every party it is given. An aggregator given a PartyRegistry keeps
+ * its sums at the registry IDs of the parties, so it can also be read by ID.
+ */
+public class PollAggregator {
+
+	private String[] names;
+	private int numOfParties;
+	private boolean fixedParties;
+	// when set, the position of a party is its ID in the registry
+	private PartyRegistry registry;
+	// maps lower case party names to their position in the accumulators
+	private HashMap<String, Integer> nameIndex;
+	private double[] totalSeats;
+	private double[] totalPercentages;
+	private int[] numOfPolls;
+
+	/**
+	 * Constructor for PollAggregator class that tracks every party it is given.
+	 */
+	public PollAggregator() {
+		nameIndex = new HashMap<String, Integer>();
+		names = new String[8];
+		totalSeats = new double[8];
+		totalPercentages = new double[8];
+		numOfPolls = new int[8];
+	}
+
+	/**
+	 * Constructor for PollAggregator class that tracks every party it is 
+	 * given at the ID the party has in a registry.
+	 * @param registry = registry giving the IDs of the parties.
+	 */
+	public PollAggregator(PartyRegistry registry) {
+		this();
+		this.registry = registry;
+	}
+	
+	/**
+	 * Constructor for PollAggregator class that only tracks the given parties.
+	 * @param names = names of parties to accumulate data for.
+	 */
+	public PollAggregator(String[] names) {
+		this.names = names;
+		fixedParties = true;
+		nameIndex = new HashMap<String, Integer>();
+		for (int index = 0; index < names.length; index++) {
+			String key = Poll.partyKey(names[index]);
+			if (!nameIndex.containsKey(key)) {
+				nameIndex.put(key, index);
+			}
+		}
+		numOfParties = names.length;
+		totalSeats = new double[names.length];
+		totalPercentages = new double[names.length];
+		numOfPolls = new int[names.length];
+	}
+
+	/**
+	 * Method to add the parties of a poll to the accumulators.
+	 * @param pollToAdd = poll to add, null is ignored.
+	 */
+	public void addPoll(Poll pollToAdd) {
+		if (pollToAdd == null) {
+			return;
+		}
+		Party[] parties = pollToAdd.getParties();
+		if (registry != null && pollToAdd.getPartyRegistry() == registry) {
+			// the poll knows the IDs of its parties, no need to look up names
+			for (int slot = 0; slot < parties.length; slot++) {
+				if (parties[slot] != null) {
+					addParty(pollToAdd.partyIdAt(slot), parties[slot]);
+				}
+			}
+			return;
+		}
+		for (Party currentParty : parties) {
+			addParty(currentParty);
+		}
+	}
+
+	/**
+	 * Method to add the data of one party in one poll to the accumulators.
+	 * Parties that are not tracked are ignored.
+	 * @param partyToAdd = party to add, null is ignored.
+	 */
+	public void addParty(Party partyToAdd) {
+		if (partyToAdd == null) {
+			return;
+		}
+		int index = indexOf(partyToAdd.getName(), !fixedParties);
+		if (index >= 0) {
+			totalSeats[index] += partyToAdd.getProjectedNumberOfSeats();
+			totalPercentages[index] += partyToAdd.getProjectedPercentageOfVotes();
+			numOfPolls[index]++;
+		}
+	}
+
+	/**
+	 * Method to add the data of one party in one poll to the accumulators,
+	 * for an aggregator that was given a PartyRegistry.
+	 * @param partyId = ID of the party in the registry.
+	 * @param partyToAdd = party to add, null is ignored.
+	 */
+	public void addParty(int partyId, Party partyToAdd) {
+		if (partyToAdd == null || registry == null || partyId < 0) {
+			return;
+		}
+		ensureTracked(partyId);
+		totalSeats[partyId] += partyToAdd.getProjectedNumberOfSeats();
+		totalPercentages[partyId] += partyToAdd.getProjectedPercentageOfVotes();
+		numOfPolls[partyId]++;
+	}
+	
+	/**
+	 * Method to take the data of one party in one poll, that was added
+	 * earlier, back out of the accumulators.
+	 * @param partyToRemove = party to remove, null is ignored.
+	 */
+	public void removeParty(Party partyToRemove) {
+		if (partyToRemove == null) {
+			return;
+		}
+		int index = indexOf(partyToRemove.getName(), false);
+		if (index >= 0 && numOfPolls[index] > 0) {
+			numOfPolls[index]--;
+			if (numOfPolls[index] == 0) {
+				// avoid leaving rounding errors behind
+				totalSeats[index] = 0;
+				totalPercentages[index] = 0;
+			}
+			else {
+				totalSeats[index] -= partyToRemove.getProjectedNumberOfSeats();
+				totalPercentages[index] -= partyToRemove.getProjectedPercentageOfVotes();
+			}
+		}
+	}
+
+	/**
+	 * Method to add the sums of another aggregator to this one, used to
+	 * combine aggregators that each went over part of the polls.
+	 * @param other = aggregator to add, it is not changed.
+	 */
+	public void merge(PollAggregator other) {
+		for (int otherIndex = 0; otherIndex < other.numOfParties; otherIndex++) {
+			if (other.numOfPolls[otherIndex] == 0) {
+				continue;
+			}
+			int index = indexOf(other.names[otherIndex], !fixedParties);
+			if (index >= 0) {
+				totalSeats[index] += other.totalSeats[otherIndex];
+				totalPercentages[index] += other.totalPercentages[otherIndex];
+				numOfPolls[index] += other.numOfPolls[otherIndex];
+			}
+		}
+	}
+
+	/**
+	 * Method to obtain the expected number of seats and percentage of votes
+	 * for a party, calculated the same way as PollList.getAveragePartyData.
+	 * @param name = name of party to get expected results for.
+	 * @return = instance of Party with expected seats and percentage.
+	 */
+	public Party getAveragePartyData(String name) {
+		Party newParty = new Party(name);
+		int index = indexOf(name, false);
+
+		// average seats & percentages calculations
+		if (index >= 0 && numOfPolls[index] != 0) {
+			newParty.setProjectedNumberOfSeats((float)(totalSeats[index] / numOfPolls[index]));
+			newParty.setProjectedPercentageOfVotes((float)(totalPercentages[index] / numOfPolls[index]));
+		}
+		else {
+			newParty.setProjectedNumberOfSeats(0f);
+			newParty.setProjectedPercentageOfVotes(0f);
+		}
+
+		return newParty;
+	}
+
+	/**
+	 * Method to obtain the expected number of seats and percentage of votes
+	 * for a party by its ID, for an aggregator that was given a PartyRegistry.
+	 * @param partyId = ID of the party in the registry.
+	 * @return = instance of Party with expected seats and percentage, or null 
+	 * if no party has the ID.
+	 */
+	public Party getAveragePartyData(int partyId) {
+		String name = (registry == null) ? null : registry.getName(partyId);
+		if (name == null) {
+			return null;
+		}
+		Party newParty = new Party(name);
+		if (partyId < numOfParties && numOfPolls[partyId] != 0) {
+			newParty.setProjectedNumberOfSeats((float)(totalSeats[partyId] / numOfPolls[partyId]));
+			newParty.setProjectedPercentageOfVotes((float)(totalPercentages[partyId] / numOfPolls[partyId]));
+		}
+		else {
+			newParty.setProjectedNumberOfSeats(0f);
+			newParty.setProjectedPercentageOfVotes(0f);
+		}
+		return newParty;
+	}
+	
+	/**
+	 * Method to obtain the names of the tracked parties, spelled as they were
+	 * first seen.
+	 * @return = names of the tracked parties.
+	 */
+	public String[] getPartyNames() {
+		if (registry == null) {
+			return Arrays.copyOf(names, numOfParties);
+		}
+		// the registry may hold parties that were never added here
+		int count = 0;
+		String[] partyNames = new String[numOfParties];
+		for (int index = 0; index < numOfParties; index++) {
+			if (numOfPolls[index] > 0) {
+				partyNames[count++] = names[index];
+			}
+		}
+		return Arrays.copyOf(partyNames, count);
+	}
+
+	/**
+	 * Method to obtain a poll that represents the aggregate of all polls added
+	 * for every tracked party.
+	 * @return = aggregate poll.
+	 */
+	public Poll getAggregatePoll() {
+		return getAggregatePoll(getPartyNames());
+	}
+
+	/**
+	 * Method to obtain a poll that represents the aggregate of all polls added.
+	 * @param partyNames = names of parties to include in the aggregate poll.
+	 * @return = aggregate poll with desired parties.
+	 */
+	public Poll getAggregatePoll(String[] partyNames) {
+		Poll aggregatePoll = new Poll("Aggregate", partyNames.length);
+		for (String party : partyNames) {
+			aggregatePoll.addParty(getAveragePartyData(party));
+		}
+		return aggregatePoll;
+	}
+
+	/**
+	 * Method to obtain a poll that represents the aggregate of all polls added,
+	 * for an aggregator that was given a PartyRegistry.
+	 * @param partyIds = IDs of parties to include in the aggregate poll, 
+	 * unknown IDs are left out.
+	 * @return = aggregate poll with desired parties.
+	 */
+	public Poll getAggregatePoll(int[] partyIds) {
+		Poll aggregatePoll = new Poll("Aggregate", partyIds.length);
+		for (int partyId : partyIds) {
+			aggregatePoll.addParty(getAveragePartyData(partyId));
+		}
+		return aggregatePoll;
+	}
+	
+	/**
+	 * Method to read the aggregate of all polls added into a reusable holder, 
+	 * for an aggregator that was given a PartyRegistry. No objects are created 
+	 * once the holder has room for the parties. 
+	 * @param partyIds = IDs of parties to include, unknown IDs are left out.
+	 * @param result = holder to fill, its previous content is replaced.
+	 */
+	public void fillAggregate(int[] partyIds, AggregateResult result) {
+		result.clear(registry, partyIds.length);
+		if (registry == null) {
+			return;
+		}
+		int registered = registry.size();
+		for (int partyId : partyIds) {
+			if (partyId >= 0 && partyId < registered) {
+				fillParty(partyId, result);
+			}
+		}
+	}
+	
+	/**
+	 * Method to read the aggregate of every party added into a reusable holder, 
+	 * for an aggregator that was given a PartyRegistry. 
+	 * @param result = holder to fill, its previous content is replaced.
+	 */
+	public void fillAggregate(AggregateResult result) {
+		result.clear(registry, numOfParties);
+		if (registry == null) {
+			return;
+		}
+		for (int partyId = 0; partyId < numOfParties; partyId++) {
+			if (numOfPolls[partyId] > 0) {
+				fillParty(partyId, result);
+			}
+		}
+	}
+	
+	/**
+	 * Method to add the average of a party to a holder, averaged the same way 
+	 * as getAveragePartyData but without creating a Party.
+	 * @param partyId = ID of the party in the registry.
+	 * @param result = holder to add the party to.
+	 */
+	private void fillParty(int partyId, AggregateResult result) {
+		if (partyId < numOfParties && numOfPolls[partyId] != 0) {
+			result.add(partyId, (float)(totalSeats[partyId] / numOfPolls[partyId]),
+					(float)(totalPercentages[partyId] / numOfPolls[partyId]));
+		}
+		else {
+			result.add(partyId, 0f, 0f);
+		}
+	}
+	
+	/**
+	 * Method to find the position of a party in the accumulators.
+	 * @param name = name of the party.
+	 * @param create = whether an untracked party should start being tracked.
+	 * @return = position of the party, or -1 if it is not tracked.
+	 */
+	private int indexOf(String name, boolean create) {
+		if (registry != null) {
+			int partyId = create ? registry.register(name) : registry.idOf(name);
+			if (create) {
+				ensureTracked(partyId);
+			}
+			return (partyId < numOfParties) ? partyId : -1;
+		}
+		String key = Poll.partyKey(name);
+		Integer index = nameIndex.get(key);
+		if (index != null) {
+			return index;
+		}
+		if (!create) {
+			return -1;
+		}
+
+		// grow accumulators if they are full
+		if (numOfParties == names.length) {
+			int newLength = names.length * 2;
+			names = Arrays.copyOf(names, newLength);
+			totalSeats = Arrays.copyOf(totalSeats, newLength);
+			totalPercentages = Arrays.copyOf(totalPercentages, newLength);
+			numOfPolls = Arrays.copyOf(numOfPolls, newLength);
+		}
+		names[numOfParties] = name;
+		nameIndex.put(key, numOfParties);
+		return numOfParties++;
+	}
+	
+	/**
+	 * Method to make room in the accumulators for every registry ID up to 
+	 * the given one.
+	 * @param partyId = ID of the party in the registry.
+	 */
+	private void ensureTracked(int partyId) {
+		if (partyId < numOfParties) {
+			return;
+		}
+		if (partyId >= names.length) {
+			int newLength = Math.max(partyId + 1, names.length * 2);
+			names = Arrays.copyOf(names, newLength);
+			totalSeats = Arrays.copyOf(totalSeats, newLength);
+			totalPercentages = Arrays.copyOf(totalPercentages, newLength);
+			numOfPolls = Arrays.copyOf(numOfPolls, newLength);
+		}
+		for (int index = numOfParties; index <= partyId; index++) {
+			names[index] = registry.getName(index);
+		}
+		numOfParties = partyId + 1;
+	}
+
+}
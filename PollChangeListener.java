@@ -0,0 +1,17 @@
+/**
+ * Interface for classes that need to be told when the parties 
+ * of a poll change, for example to keep running totals up to date.
+ */
+public interface PollChangeListener {
+	
+	/**
+	 * This method is called after a party has been added to a poll, and after
+	 * the name, seats or percentage of a party in the poll have been set
+	 * @param poll Poll that changed
+	 * @param oldParty Party with the same name that was replaced, or null if there was none;
+	 * for a party that was set, a copy of it as it was before
+	 * @param newParty Party that is now in the poll, or null if oldParty was taken
+	 * out because another party of the poll was renamed to its name
+	 */
+	void partyChanged(Poll poll, Party oldParty, Party newParty);
+}
@@ -0,0 +1,599 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Imports poll data in bulk from CSV or JSON-lines text into a PollList.
+ * Each row holds one party in one poll: poll name, party name, projected
+ * seats and projected percentage of votes (as a decimal).
+ * <p>
+ * CSV rows have the columns in that order, separated by commas, with
+ * optional double quotes around fields. A first row that does not have
+ * a number in the seats column is taken as a header and skipped.
+ * JSON-lines rows are objects with the keys "poll", "party", "seats" and
+ * "votes", other keys are ignored.
+ * <p>
+ * Consecutive rows with the same poll name make up one poll, which is added
+ * to the list as soon as a row for another poll is read. Input is read in
+ * chunks into reused buffers and only the rows of the current poll are
+ * kept, so memory use does not depend on the size of the input. Rows that
+ * cannot be imported are skipped and described in the ImportReport.
+ */
+public class PollImporter {
+
+	private static final int CHUNK_SIZE = 64 * 1024;
+	private static final int POLL = 0, PARTY = 1, SEATS = 2, VOTES = 3, NUM_OF_FIELDS = 4;
+	private static final String[] FIELD_NAMES = {"poll", "party", "seats", "votes"};
+	// party names are reused instead of creating a String for every row, up to this many names
+	private static final int MAX_INTERNED_NAMES = 4096;
+
+	private PollList target;
+	private ImportReport report;
+
+	// reused buffers
+	private char[] chunk = new char[CHUNK_SIZE];
+	private char[] line = new char[256];
+	private int lineLength;
+	private char[][] fields = new char[NUM_OF_FIELDS][64];
+	private int[] fieldLengths = new int[NUM_OF_FIELDS];
+	private boolean[] fieldPresent = new boolean[NUM_OF_FIELDS];
+	private String[] internedNames = new String[2 * MAX_INTERNED_NAMES];
+	private int numOfInternedNames;
+
+	// rows of the poll being read
+	private String currentPollName;
+	private String[] currentParties = new String[16];
+	private float[] currentSeats = new float[16];
+	private float[] currentVotes = new float[16];
+	private int numOfCurrentRows;
+
+	/**
+	 * Constructor for PollImporter class.
+	 * @param target = list the imported polls are added to.
+	 */
+	public PollImporter(PollList target) {
+		this.target = target;
+	}
+
+	/**
+	 * Method to import a CSV file encoded in UTF-8.
+	 * @param file = file to import.
+	 * @return = report of the import.
+	 * @throws IOException = if the file cannot be read.
+	 */
+	public ImportReport importCsv(Path file) throws IOException {
+		try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			return importCsv(in);
+		}
+	}
+
+	/**
+	 * Method to import CSV text. The reader is not closed.
+	 * @param in = text to import.
+	 * @return = report of the import.
+	 * @throws IOException = if reading fails.
+	 */
+	public ImportReport importCsv(Reader in) throws IOException {
+		return importRows(in, false);
+	}
+
+	/**
+	 * Method to import a JSON-lines file encoded in UTF-8.
+	 * @param file = file to import.
+	 * @return = report of the import.
+	 * @throws IOException = if the file cannot be read.
+	 */
+	public ImportReport importJsonLines(Path file) throws IOException {
+		try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			return importJsonLines(in);
+		}
+	}
+
+	/**
+	 * Method to import JSON-lines text. The reader is not closed.
+	 * @param in = text to import.
+	 * @return = report of the import.
+	 * @throws IOException = if reading fails.
+	 */
+	public ImportReport importJsonLines(Reader in) throws IOException {
+		return importRows(in, true);
+	}
+
+	// PRIVATE METHODS
+	private ImportReport importRows(Reader in, boolean json) throws IOException {
+		report = new ImportReport();
+		currentPollName = null;
+		numOfCurrentRows = 0;
+		lineLength = 0;
+		long lineNumber = 0;
+		boolean lineStarted = false;
+
+		// split the input into lines, a line may cross the end of a chunk
+		int read;
+		while ((read = in.read(chunk)) != -1) {
+			for (int index = 0; index < read; index++) {
+				char c = chunk[index];
+				if (c == '\n') {
+					lineNumber++;
+					processLine(lineNumber, json);
+					lineLength = 0;
+					lineStarted = false;
+				}
+				else {
+					appendToLine(c);
+					lineStarted = true;
+				}
+			}
+		}
+		if (lineStarted) {
+			lineNumber++;
+			processLine(lineNumber, json);
+		}
+		finishPoll();
+		return report;
+	}
+
+	private void appendToLine(char c) {
+		if (lineLength == line.length) {
+			line = Arrays.copyOf(line, line.length * 2);
+		}
+		line[lineLength++] = c;
+	}
+
+	private void processLine(long lineNumber, boolean json) {
+		int end = lineLength;
+		if (end > 0 && line[end - 1] == '\r') {
+			end--;
+		}
+		if (isBlank(line, 0, end)) {
+			return;
+		}
+		Arrays.fill(fieldPresent, false);
+		String problem = json ? splitJson(end) : splitCsv(end);
+		if (problem == null) {
+			problem = acceptRow(lineNumber == 1 && !json);
+		}
+		if (problem != null && problem != HEADER) {
+			report.rowRejected(lineNumber, problem);
+		}
+	}
+
+	// marker returned by acceptRow when the first CSV row is a header
+	private static final String HEADER = "header";
+
+	/**
+	 * Method to check the fields of a row and add it to the current poll.
+	 * @return = null if the row was accepted, otherwise why it was not.
+	 */
+	private String acceptRow(boolean mayBeHeader) {
+		for (int field = 0; field < NUM_OF_FIELDS; field++) {
+			if (!fieldPresent[field]) {
+				return "missing " + FIELD_NAMES[field];
+			}
+		}
+		float seats = parseFloat(fields[SEATS], fieldLengths[SEATS]);
+		if (Float.isNaN(seats)) {
+			return mayBeHeader ? HEADER : "seats is not a number";
+		}
+		float votes = parseFloat(fields[VOTES], fieldLengths[VOTES]);
+		if (Float.isNaN(votes)) {
+			return "votes is not a number";
+		}
+		if (fieldLengths[POLL] == 0) {
+			return "poll name is empty";
+		}
+		if (fieldLengths[PARTY] == 0) {
+			return "party name is empty";
+		}
+		if (seats < 0) {
+			return "seats cannot be negative";
+		}
+		if (votes < 0 || votes > 1) {
+			return "votes must be between 0.0 and 1.0";
+		}
+
+		// a row for another poll completes the current one
+		if (currentPollName == null || !sameText(currentPollName, fields[POLL], fieldLengths[POLL])) {
+			finishPoll();
+			currentPollName = new String(fields[POLL], 0, fieldLengths[POLL]);
+		}
+		if (numOfCurrentRows == currentParties.length) {
+			int newLength = currentParties.length * 2;
+			currentParties = Arrays.copyOf(currentParties, newLength);
+			currentSeats = Arrays.copyOf(currentSeats, newLength);
+			currentVotes = Arrays.copyOf(currentVotes, newLength);
+		}
+		currentParties[numOfCurrentRows] = internName(fields[PARTY], fieldLengths[PARTY]);
+		currentSeats[numOfCurrentRows] = seats;
+		currentVotes[numOfCurrentRows] = votes;
+		numOfCurrentRows++;
+		report.rowImported();
+		return null;
+	}
+
+	private void finishPoll() {
+		if (currentPollName == null || numOfCurrentRows == 0) {
+			return;
+		}
+		Poll poll = new Poll(currentPollName, numOfCurrentRows);
+		for (int row = 0; row < numOfCurrentRows; row++) {
+			poll.addParty(new Party(currentParties[row], currentSeats[row], currentVotes[row]));
+			currentParties[row] = null;
+		}
+		target.addPoll(poll);
+		report.pollImported();
+		numOfCurrentRows = 0;
+		currentPollName = null;
+	}
+
+	/**
+	 * Method to split a CSV line into the fields, removing quotes.
+	 * @return = null if the line could be split, otherwise why it could not.
+	 */
+	private String splitCsv(int end) {
+		int field = 0;
+		int index = 0;
+		while (true) {
+			if (field == NUM_OF_FIELDS) {
+				return "too many columns";
+			}
+			fieldLengths[field] = 0;
+			if (index < end && line[index] == '"') { // quoted field, "" stands for one quote
+				index++;
+				boolean closed = false;
+				while (index < end && !closed) {
+					if (line[index] == '"') {
+						if (index + 1 < end && line[index + 1] == '"') {
+							appendToField(field, '"');
+							index += 2;
+						}
+						else {
+							closed = true;
+							index++;
+						}
+					}
+					else {
+						appendToField(field, line[index++]);
+					}
+				}
+				if (!closed) {
+					return "unterminated quote";
+				}
+				if (index < end && line[index] != ',') {
+					return "unexpected text after quote";
+				}
+			}
+			else {
+				while (index < end && line[index] != ',') {
+					appendToField(field, line[index++]);
+				}
+				trimField(field);
+			}
+			fieldPresent[field] = true;
+			field++;
+			if (index >= end) {
+				return null;
+			}
+			index++; // skip the comma
+		}
+	}
+
+	/**
+	 * Method to read the fields of a flat JSON object on one line.
+	 * @return = null if the line could be read, otherwise why it could not.
+	 */
+	private String splitJson(int end) {
+		int index = skipSpaces(0, end);
+		if (index >= end || line[index] != '{') {
+			return "not a JSON object";
+		}
+		index = skipSpaces(index + 1, end);
+		if (index < end && line[index] == '}') {
+			return "empty JSON object";
+		}
+		while (true) {
+			// key
+			if (index >= end || line[index] != '"') {
+				return "expected a key";
+			}
+			int keyStart = index + 1;
+			index = skipString(keyStart, end);
+			if (index < 0) {
+				return "unterminated string";
+			}
+			int field = fieldForKey(keyStart, index - 1);
+			index = skipSpaces(index, end);
+			if (index >= end || line[index] != ':') {
+				return "expected ':'";
+			}
+			index = skipSpaces(index + 1, end);
+
+			// value
+			if (index >= end) {
+				return "missing value";
+			}
+			if (line[index] == '"') {
+				index = readJsonString(field, index + 1, end);
+				if (index < 0) {
+					return "unterminated string or malformed escape";
+				}
+			}
+			else if (line[index] == '{' || line[index] == '[') {
+				if (field >= 0) {
+					return FIELD_NAMES[field] + " cannot be an object or array";
+				}
+				index = skipNested(index, end);
+				if (index < 0) {
+					return "unterminated object or array";
+				}
+			}
+			else {
+				while (index < end && line[index] != ',' && line[index] != '}' && !isSpace(line[index])) {
+					if (field >= 0) {
+						appendToField(field, line[index]);
+					}
+					index++;
+				}
+			}
+			if (field >= 0) {
+				fieldPresent[field] = true;
+			}
+
+			// separator or end of object
+			index = skipSpaces(index, end);
+			if (index < end && line[index] == ',') {
+				index = skipSpaces(index + 1, end);
+			}
+			else if (index < end && line[index] == '}') {
+				return isBlank(line, index + 1, end) ? null : "unexpected text after object";
+			}
+			else {
+				return "expected ',' or '}'";
+			}
+		}
+	}
+
+	private int fieldForKey(int start, int end) {
+		for (int field = 0; field < NUM_OF_FIELDS; field++) {
+			String name = FIELD_NAMES[field];
+			if (sameText(name, line, start, end - start)) {
+				fieldLengths[field] = 0;
+				return field;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Method to copy a JSON string value into a field, resolving escapes.
+	 * @return = index after the closing quote, or -1 if there is none or an 
+	 * escape is malformed.
+	 */
+	private int readJsonString(int field, int index, int end) {
+		while (index < end) {
+			char c = line[index++];
+			if (c == '"') {
+				return index;
+			}
+			if (c == '\\' && index < end) {
+				char escaped = line[index++];
+				switch (escaped) {
+				case 'n': c = '\n'; break;
+				case 't': c = '\t'; break;
+				case 'r': c = '\r'; break;
+				case 'b': c = '\b'; break;
+				case 'f': c = '\f'; break;
+				case 'u':
+					if (index + 4 > end) {
+						return -1;
+					}
+					int code = 0;
+					for (int digit = 0; digit < 4; digit++) {
+						int value = Character.digit(line[index++], 16);
+						if (value < 0) {
+							return -1;
+						}
+						code = code * 16 + value;
+					}
+					c = (char) code;
+					break;
+				default: c = escaped; // quote, backslash and slash
+				}
+			}
+			if (field >= 0) {
+				appendToField(field, c);
+			}
+		}
+		return -1;
+	}
+
+	private int skipString(int index, int end) {
+		while (index < end) {
+			char c = line[index++];
+			if (c == '\\') {
+				index++;
+			}
+			else if (c == '"') {
+				return index;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Method to skip an object or array value of a key that is not imported.
+	 * @return = index after the value, or -1 if it is not closed on the line.
+	 */
+	private int skipNested(int index, int end) {
+		int depth = 0;
+		while (index < end) {
+			char c = line[index++];
+			if (c == '"') {
+				index = skipString(index, end);
+				if (index < 0) {
+					return -1;
+				}
+			}
+			else if (c == '{' || c == '[') {
+				depth++;
+			}
+			else if ((c == '}' || c == ']') && --depth == 0) {
+				return index;
+			}
+		}
+		return -1;
+	}
+
+	private int skipSpaces(int index, int end) {
+		while (index < end && isSpace(line[index])) {
+			index++;
+		}
+		return index;
+	}
+
+	private void appendToField(int field, char c) {
+		if (fieldLengths[field] == fields[field].length) {
+			fields[field] = Arrays.copyOf(fields[field], fields[field].length * 2);
+		}
+		fields[field][fieldLengths[field]++] = c;
+	}
+
+	private void trimField(int field) {
+		char[] chars = fields[field];
+		int start = 0;
+		int end = fieldLengths[field];
+		while (start < end && isSpace(chars[start])) {
+			start++;
+		}
+		while (end > start && isSpace(chars[end - 1])) {
+			end--;
+		}
+		if (start > 0) {
+			System.arraycopy(chars, start, chars, 0, end - start);
+		}
+		fieldLengths[field] = end - start;
+	}
+
+	/**
+	 * Method to get a String for a party name, reusing the String of an earlier
+	 * row with the same name so no String is created for most rows.
+	 */
+	private String internName(char[] chars, int length) {
+		int hash = 0;
+		for (int index = 0; index < length; index++) {
+			hash = 31 * hash + chars[index];
+		}
+		int mask = internedNames.length - 1;
+		int slot = hash & mask;
+		while (internedNames[slot] != null) {
+			if (sameText(internedNames[slot], chars, length)) {
+				return internedNames[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		String name = new String(chars, 0, length);
+		if (numOfInternedNames < MAX_INTERNED_NAMES) {
+			internedNames[slot] = name;
+			numOfInternedNames++;
+		}
+		return name;
+	}
+
+	private static boolean sameText(String text, char[] chars, int length) {
+		return sameText(text, chars, 0, length);
+	}
+
+	private static boolean sameText(String text, char[] chars, int start, int length) {
+		if (text.length() != length) {
+			return false;
+		}
+		for (int index = 0; index < length; index++) {
+			if (text.charAt(index) != chars[start + index]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Method to read a decimal number such as 12, -0.35 or 1.5e2 without
+	 * creating a String for it.
+	 * @return = the number, or NaN if the text is not a number.
+	 */
+	static float parseFloat(char[] chars, int length) {
+		int index = 0;
+		boolean negative = false;
+		if (index < length && (chars[index] == '-' || chars[index] == '+')) {
+			negative = chars[index] == '-';
+			index++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int decimalExponent = 0;
+		boolean seenPoint = false;
+		boolean seenDigit = false;
+		for (; index < length; index++) {
+			char c = chars[index];
+			if (c >= '0' && c <= '9') {
+				seenDigit = true;
+				if (digits < 18) {
+					mantissa = mantissa * 10 + (c - '0');
+					if (mantissa != 0) {
+						digits++;
+					}
+					if (seenPoint) {
+						decimalExponent--;
+					}
+				}
+				else if (!seenPoint) {
+					decimalExponent++;
+				}
+			}
+			else if (c == '.' && !seenPoint) {
+				seenPoint = true;
+			}
+			else {
+				break;
+			}
+		}
+		if (!seenDigit) {
+			return Float.NaN;
+		}
+		if (index < length) {
+			if (chars[index] != 'e' && chars[index] != 'E') {
+				return Float.NaN;
+			}
+			// numbers with an exponent are rare, leave them to the JDK
+			try {
+				return Float.parseFloat(new String(chars, 0, length));
+			} catch (NumberFormatException e) {
+				return Float.NaN;
+			}
+		}
+		double value = mantissa;
+		if (decimalExponent < 0) {
+			value = value / Math.pow(10, -decimalExponent);
+		}
+		else if (decimalExponent > 0) {
+			value = value * Math.pow(10, decimalExponent);
+		}
+		return (float) (negative ? -value : value);
+	}
+
+	private static boolean isSpace(char c) {
+		return c == ' ' || c == '\t' || c == '\r';
+	}
+
+	private static boolean isBlank(char[] chars, int start, int end) {
+		for (int index = start; index < end; index++) {
+			if (!isSpace(chars[index])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -1,207 +1,577 @@
-/**
- * Class representing a list of polls, 
- * all of which collect data for the same election. 
- * 
- * @author Fedor Prokopchuk. 
- */
-public class PollList {
-	
-	private Poll[] polls;
-	private int numOfSeats;
-	public static final int MAX_STARS_FOR_VISUALIZATION = 18;
-
-	/**
-	 * Constructor for PollList class that sets the instance variables.
-	 * @param numOfPolls = number of polls that the list should contain. 
-	 * @param seats = number of seats available in election that is 
-	 * covered by polls in the list. 
-	 */
-	public PollList(int numOfPolls, int seats) {
-		if (numOfPolls > 0) {
-			polls = new Poll[numOfPolls];
-		} 
-		else {
-			polls = new Poll[5];
-			System.out.println("Number of polls should be at least 1. "
-					+ "Number of polls set to 5.");
-		}
-		
-		if (seats > 0) {
-			numOfSeats = seats; 
-		} 
-		else {
-			numOfSeats = 10;
-			System.out.println("Number of seats should be at least 1. "
-					+ "Number of seats set to 10.");
-		}
-	}
-	
-	/**
-	 * Getter methods that return a list of polls and the number of seats
-	 * available in the election covered by the polls.
-	 */
-	public Poll[] toArray() {
-		return polls;
-	}
-
-	public int getNumOfSeats() {
-		return numOfSeats;
-	}
-	
-	/**
-	 * Method to add a poll to the poll list. Does not returning anything. 
-	 * @param pollToAdd = Poll to add to list of polls.
-	 */
-	public void addPoll(Poll pollToAdd) {
-		// check if polls array is full
-		boolean full = true;
-		int index = 0;
-		int i = 0;
-		while (i < polls.length && full) {
-			if (polls[i] == null) {
-				full = false;
-				index = i;
-			}
-			i++;
-		}
-		
-		// add poll to array if there is space
-		if (pollToAdd == null) {
-			System.out.println("Error: Provided argument is of type 'null'.");
-		} 
-		else if (full) {
-			System.out.println("Error: List is full, no further polls can be added.");
-		} 
-		else {
-			polls[index] = pollToAdd;
-		}
-		
-		return;
-	}
-	
-	/**
-	 * Method to calculate expected number of seats and percentage of votes for a party.
-	 * @param name = name of party to calculate expected results for.
-	 * @return = instance of Party with expected seats and percentage. 
-	 */
-	public Party getAveragePartyData(String name) {
-		// new party object and variables
-		Party newParty = new Party(name);
-		Party currentParty;
-		float totalSeats = 0f;
-		float totalPercentages = 0f;
-		int numOfPolls = 0;
-		
-		// getting total seats, percentages, and polls that contain party
-		for (Poll currentPoll : polls) {
-			currentParty = currentPoll.getParty(name);
-			if (currentParty != null) {
-				totalSeats += currentParty.getProjectedNumberOfSeats();
-				totalPercentages += currentParty.getProjectedPercentageOfVotes();
-				numOfPolls++;
-			}
-		}
-		
-		// average seats & percentages calculations
-		if (numOfPolls != 0) {
-			newParty.setProjectedNumberOfSeats(totalSeats / numOfPolls);
-			newParty.setProjectedPercentageOfVotes(totalPercentages / numOfPolls);
-		} 
-		else {
-			newParty.setProjectedNumberOfSeats(0f);
-			newParty.setProjectedPercentageOfVotes(0f);
-		}
-		
-		return newParty;
-	}
-	
-	/**
-	 * Method to obtain a poll that represents the aggregate of all polls in the list.
-	 * @param names = names of parties to include in the aggregate poll
-	 * @return = aggregate poll with desired parties. 
-	 */
-	public Poll getAggregatePoll(String[] names) {
-		Poll aggregatePoll = new Poll("Aggregate", names.length); 
-		for (String party : names) {
-			aggregatePoll.addParty(getAveragePartyData(party));
-		}
-		return aggregatePoll;
-	}
-	
-	/**
-	 * Method to obtain a text-based visualization, based on seats, 
-	 * for each poll in the list. 
-	 * @return = text visualization of polls. 
-	 */
-	public String textVisualizationBySeats() {
-		String stringVisualization = "";
-		
-		// seats per star rounding 
-		int seats = seatsPerStar();
-		
-		// string concatenation
-		for (int index = 0; index < polls.length; index++) {
-			if (polls[index] != null) {
-				stringVisualization += polls[index].textVisualizationBySeats(
-						MAX_STARS_FOR_VISUALIZATION, seats) + "\n";
-			} 
-			else {
-				stringVisualization += "";
-			}
-		}
-		
-		return stringVisualization;
-	}
-	
-	/**
-	 * Method to obtain a number of seats per star to be used 
-	 * for text visualization by seats.  
-	 * @return = number of seats per star. 
-	 */
-	public int seatsPerStar() {
-		int seatsPerStar = numOfSeats / MAX_STARS_FOR_VISUALIZATION;
-		float fseatsPerStar = (float)numOfSeats / MAX_STARS_FOR_VISUALIZATION;
-		// round up if seats don't exactly divide into stars 
-		if ((float)seatsPerStar != fseatsPerStar) {
-			seatsPerStar += 1;
-		}
-		
-		return seatsPerStar;
-	}
-	
-	/**
-	 * Method to obtain a text-based visualization, based on votes,
-	 * for each poll in the list.
-	 * @return = text visualization of polls. 
-	 */
-	public String textVisualizationByVotes() {
-		String stringVisualization = "";
-		
-		// string concatenation
-		for (int index = 0; index < polls.length; index++) {
-			if (polls[index] != null) {
-				stringVisualization += polls[index].textVisualizationByVotes(
-						MAX_STARS_FOR_VISUALIZATION, 
-						100 / MAX_STARS_FOR_VISUALIZATION + 1) + "\n";
-			} 
-			else {
-				stringVisualization += "";
-			}
-		}
-		
-		return stringVisualization;
-	}
-	
-	/**
-	 * Method to obtain the number of seats and a text-based visualization
-	 * for each poll in the list. 
-	 * @return = text-based summary of Class instance. 
-	 */
-	public String toString() {
-		String stringVisualization = "Number of seats: " + numOfSeats + "\n" 
-				+ textVisualizationBySeats();
-		
-		return stringVisualization;
-	}
-	
-}
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Class representing a list of polls, 
+ * all of which collect data for the same election. 
+ * A list either holds a fixed number of polls or grows as polls are added.
+ * <p>
+ * Adding a poll, and updating the totals when a party of a poll in the list 
+ * changes, hold the lock of the list, so code that synchronizes on the list 
+ * never sees a poll half added. 
+ * 
+ * @author Fedor Prokopchuk. 
+ */
+public class PollList {
+	
+	private Poll[] polls;
+	private int numOfPolls;
+	private boolean growable;
+	private int numOfSeats;
+	public static final int MAX_STARS_FOR_VISUALIZATION = 18;
+	private static final int INITIAL_GROWABLE_CAPACITY = 16;
+	
+	// IDs of the parties in the polls of the list
+	private PartyRegistry registry = new PartyRegistry();
+	// running totals of every party in the list, kept at the party IDs and up to 
+	// date as polls are added and as parties in those polls are replaced or set
+	private PollAggregator runningTotals = new PollAggregator(registry);
+	// number of times each party was replaced or set in the polls of the list, 
+	// indexed by party ID, used by PollQuery to know which columns are out of date
+	private int[] partyChangeCounts = new int[0];
+	// changes every time a poll is added or a party in a poll is replaced or set
+	private volatile long version;
+	private PollQuery query;
+	// weighted totals, only kept once enableWeightedAggregation is called
+	private WeightedPollAggregator weightedTotals;
+	private PollChangeListener totalsUpdater = new PollChangeListener() {
+		public void partyChanged(Poll poll, Party oldParty, Party newParty) {
+			synchronized (PollList.this) {
+				runningTotals.removeParty(oldParty);
+				runningTotals.addParty(newParty);
+				countPartyChange(oldParty);
+				countPartyChange(newParty);
+				version++;
+				if (weightedTotals != null) {
+					weightedTotals.removeParty(poll, oldParty);
+					weightedTotals.addParty(poll, newParty);
+				}
+			}
+		}
+	};
+
+	/**
+	 * Constructor for PollList class that sets the instance variables.
+	 * @param numOfPolls = number of polls that the list should contain. 
+	 * @param seats = number of seats available in election that is 
+	 * covered by polls in the list. 
+	 */
+	public PollList(int numOfPolls, int seats) {
+		if (numOfPolls > 0) {
+			polls = new Poll[numOfPolls];
+		} 
+		else {
+			polls = new Poll[5];
+			System.out.println("Number of polls should be at least 1. "
+					+ "Number of polls set to 5.");
+		}
+		
+		setNumOfSeats(seats);
+	}
+	
+	/**
+	 * Constructor for PollList class that creates a list without a fixed
+	 * number of polls, it grows as polls are added. 
+	 * @param seats = number of seats available in election that is 
+	 * covered by polls in the list. 
+	 */
+	public PollList(int seats) {
+		polls = new Poll[INITIAL_GROWABLE_CAPACITY];
+		growable = true;
+		setNumOfSeats(seats);
+	}
+	
+	/**
+	 * Method used by the constructors to set the number of seats, 
+	 * defaults to 10 seats if the number given is not valid.
+	 * @param seats = number of seats available in election. 
+	 */
+	private void setNumOfSeats(int seats) {
+		if (seats > 0) {
+			numOfSeats = seats; 
+		} 
+		else {
+			numOfSeats = 10;
+			System.out.println("Number of seats should be at least 1. "
+					+ "Number of seats set to 10.");
+		}
+	}
+	
+	/**
+	 * Getter methods that return a list of polls, the number of polls in the 
+	 * list and the number of seats available in the election covered by the polls.
+	 * The returned list only contains the polls added so far. 
+	 */
+	public Poll[] toArray() {
+		if (numOfPolls == polls.length) {
+			return polls;
+		}
+		return Arrays.copyOf(polls, numOfPolls);
+	}
+	
+	public int getNumOfPolls() {
+		return numOfPolls;
+	}
+
+	public int getNumOfSeats() {
+		return numOfSeats;
+	}
+	
+	/**
+	 * Method to obtain a number that changes every time a poll is added or a 
+	 * party in a poll of the list is replaced or has its seats, percentage or 
+	 * name set, so anything calculated from the list can tell whether it is 
+	 * out of date. 
+	 * @return = version of the list. 
+	 */
+	public long getVersion() {
+		return version;
+	}
+	
+	/**
+	 * Method to add a poll to the poll list. Does not returning anything. 
+	 * @param pollToAdd = Poll to add to list of polls.
+	 */
+	public synchronized void addPoll(Poll pollToAdd) {
+		// make room for the poll if the list can grow
+		boolean full = numOfPolls == polls.length;
+		if (full && growable && pollToAdd != null) {
+			polls = Arrays.copyOf(polls, polls.length * 2);
+			full = false;
+		}
+		
+		// add poll to array if there is space
+		if (pollToAdd == null) {
+			System.out.println("Error: Provided argument is of type 'null'.");
+		} 
+		else if (full) {
+			System.out.println("Error: List is full, no further polls can be added.");
+		} 
+		else {
+			polls[numOfPolls++] = pollToAdd;
+			pollToAdd.bindPartyRegistry(registry);
+			runningTotals.addPoll(pollToAdd);
+			if (weightedTotals != null) {
+				weightedTotals.addPoll(pollToAdd);
+			}
+			pollToAdd.addChangeListener(totalsUpdater);
+			version++;
+			if (Metrics.ENABLED) Metrics.POLLS_ADDED.increment();
+		}
+		
+		return;
+	}
+	
+	/**
+	 * Method to calculate expected number of seats and percentage of votes for a party.
+	 * @param name = name of party to calculate expected results for.
+	 * @return = instance of Party with expected seats and percentage. 
+	 */
+	public Party getAveragePartyData(String name) {
+		// totals are kept up to date by addPoll, so no need to go over the polls
+		return runningTotals.getAveragePartyData(name);
+	}
+	
+	/**
+	 * Method to calculate expected number of seats and percentage of votes for 
+	 * a party by its ID, without looking up its name. 
+	 * @param partyId = ID of party in the registry of the list. 
+	 * @return = instance of Party with expected seats and percentage, or null 
+	 * if no party has the ID. 
+	 */
+	public Party getAveragePartyData(int partyId) {
+		return runningTotals.getAveragePartyData(partyId);
+	}
+	
+	/**
+	 * Method to calculate expected number of seats and percentage of votes for 
+	 * a party by adding up its column of seats and percentages over every poll 
+	 * with the given kernel, instead of reading the running totals. The columns 
+	 * are kept by query() and only built the first time a party is asked for. 
+	 * @param name = name of party to calculate expected results for.
+	 * @param kernel = kernel that adds up the columns, see AggregationKernel.vector. 
+	 * @return = instance of Party with expected seats and percentage. 
+	 */
+	public Party getAveragePartyData(String name, AggregationKernel kernel) {
+		PollQuery columns = query();
+		double[] seats = new double[2];
+		double[] percentages = new double[2];
+		kernel.accumulate(columns.column(name, PollQuery.Measure.SEATS), 0, numOfPolls, seats);
+		kernel.accumulate(columns.column(name, PollQuery.Measure.VOTES), 0, numOfPolls, percentages);
+		
+		Party newParty = new Party(name);
+		if (seats[1] != 0) {
+			newParty.setProjectedNumberOfSeats((float)(seats[0] / seats[1]));
+			newParty.setProjectedPercentageOfVotes((float)(percentages[0] / percentages[1]));
+		}
+		else {
+			newParty.setProjectedNumberOfSeats(0f);
+			newParty.setProjectedPercentageOfVotes(0f);
+		}
+		return newParty;
+	}
+	
+	/**
+	 * Method to obtain a poll that represents the aggregate of all polls in 
+	 * the list, adding up the columns of the parties with the given kernel. 
+	 * @param names = names of parties to include in the aggregate poll
+	 * @param kernel = kernel that adds up the columns, see AggregationKernel.vector. 
+	 * @return = aggregate poll with desired parties. 
+	 */
+	public Poll getAggregatePoll(String[] names, AggregationKernel kernel) {
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		Poll aggregatePoll = new Poll("Aggregate", names.length);
+		for (String party : names) {
+			aggregatePoll.addParty(getAveragePartyData(party, kernel));
+		}
+		if (Metrics.ENABLED) Metrics.AGGREGATE_LATENCY.record(System.nanoTime() - start);
+		return aggregatePoll;
+	}
+	
+	/**
+	 * Method to obtain a poll that represents the aggregate of all polls in the list.
+	 * @param names = names of parties to include in the aggregate poll
+	 * @return = aggregate poll with desired parties. 
+	 */
+	public Poll getAggregatePoll(String[] names) {
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		Poll aggregatePoll = runningTotals.getAggregatePoll(names);
+		if (Metrics.ENABLED) Metrics.AGGREGATE_LATENCY.record(System.nanoTime() - start);
+		return aggregatePoll;
+	}
+	
+	/**
+	 * Method to obtain a poll that represents the aggregate of all polls in 
+	 * the list by party IDs, without looking up names. 
+	 * @param partyIds = IDs of parties to include in the aggregate poll, 
+	 * unknown IDs are left out. 
+	 * @return = aggregate poll with desired parties. 
+	 */
+	public Poll getAggregatePoll(int[] partyIds) {
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		Poll aggregatePoll = runningTotals.getAggregatePoll(partyIds);
+		if (Metrics.ENABLED) Metrics.AGGREGATE_LATENCY.record(System.nanoTime() - start);
+		return aggregatePoll;
+	}
+	
+	/**
+	 * Method to read the aggregate of all polls in the list into a reusable 
+	 * holder instead of creating a new poll, so repeated reads create no objects. 
+	 * @param partyIds = IDs of parties to include in the aggregate, 
+	 * unknown IDs are left out. 
+	 * @param result = holder to fill, its previous content is replaced. 
+	 */
+	public void fillAggregate(int[] partyIds, AggregateResult result) {
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		runningTotals.fillAggregate(partyIds, result);
+		if (Metrics.ENABLED) Metrics.AGGREGATE_LATENCY.record(System.nanoTime() - start);
+	}
+	
+	/**
+	 * Method to read the aggregate of every party in the list into a reusable 
+	 * holder, in the order the parties were first seen. 
+	 * @param result = holder to fill, its previous content is replaced. 
+	 */
+	public void fillAggregate(AggregateResult result) {
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		runningTotals.fillAggregate(result);
+		if (Metrics.ENABLED) Metrics.AGGREGATE_LATENCY.record(System.nanoTime() - start);
+	}
+	
+	/**
+	 * Method to obtain the registry that gives the parties in the list their IDs. 
+	 * Every poll added to the list uses the registry of the list, unless it was 
+	 * added to another list first. 
+	 * @return = party registry of the list. 
+	 */
+	public PartyRegistry getPartyRegistry() {
+		return registry;
+	}
+	
+	/**
+	 * Method to look up the IDs of parties once, so they can be used for 
+	 * repeated aggregate queries. Names not in the list get new IDs. 
+	 * @param names = names of parties. 
+	 * @return = IDs of the parties, in the same order. 
+	 */
+	public int[] getPartyIds(String[] names) {
+		return registry.register(names);
+	}
+	
+	/**
+	 * Method to start keeping weighted totals, where every poll counts in 
+	 * proportion to its sample size and decays with the time between its 
+	 * fielded date and the aggregation date. Polls already in the list are 
+	 * added, later polls are added by addPoll. Calling it again starts over 
+	 * with the new settings. 
+	 * @param halfLifeDays = number of days after which a poll counts half as much, 
+	 * 0 to only weigh by sample size. 
+	 * @param aggregationDate = date the weighted aggregate is calculated for, null for today. 
+	 */
+	public void enableWeightedAggregation(double halfLifeDays, LocalDate aggregationDate) {
+		WeightedPollAggregator totals = new WeightedPollAggregator(halfLifeDays, aggregationDate);
+		for (int index = 0; index < numOfPolls; index++) {
+			totals.addPoll(polls[index]);
+		}
+		weightedTotals = totals;
+	}
+	
+	/**
+	 * Method to move the date the weighted aggregate is calculated for. The 
+	 * weighted totals are rescaled, so this does not depend on the number of polls. 
+	 * @param aggregationDate = new date to calculate the weighted aggregate for. 
+	 */
+	public void setAggregationDate(LocalDate aggregationDate) {
+		if (weightedTotals == null) {
+			System.out.println("Error: Weighted aggregation is not enabled.");
+		} 
+		else {
+			weightedTotals.advanceTo(aggregationDate);
+		}
+	}
+	
+	/**
+	 * Method to calculate the weighted expected number of seats and percentage 
+	 * of votes for a party, enabling weighted aggregation for today with no 
+	 * decay if it was not enabled. 
+	 * @param name = name of party to calculate expected results for.
+	 * @return = instance of Party with expected seats and percentage. 
+	 */
+	public Party getWeightedAveragePartyData(String name) {
+		if (weightedTotals == null) {
+			enableWeightedAggregation(0, null);
+		}
+		return weightedTotals.getAveragePartyData(name);
+	}
+	
+	/**
+	 * Method to obtain a poll that represents the weighted aggregate of all 
+	 * polls in the list, enabling weighted aggregation for today with no 
+	 * decay if it was not enabled. 
+	 * @param names = names of parties to include in the aggregate poll
+	 * @return = weighted aggregate poll with desired parties. 
+	 */
+	public Poll getWeightedAggregatePoll(String[] names) {
+		if (weightedTotals == null) {
+			enableWeightedAggregation(0, null);
+		}
+		return weightedTotals.getAggregatePoll(names);
+	}
+	
+	/**
+	 * Method to obtain the query layer of the list, for top-k, filter and 
+	 * poll name queries. The query keeps its indexes between calls and brings 
+	 * them up to date as polls are added or changed. 
+	 * @return = query layer of the list. 
+	 */
+	public PollQuery query() {
+		if (query == null) {
+			query = new PollQuery(this);
+		}
+		return query;
+	}
+	
+	/**
+	 * Method to obtain the names of all parties in the polls of the list.
+	 * @return = party names, spelled as they were first seen. 
+	 */
+	public String[] getPartyNames() {
+		return runningTotals.getPartyNames();
+	}
+	
+	/**
+	 * Method to obtain the aggregate poll by going over every poll in the list 
+	 * again instead of using the running totals. Large lists are split across 
+	 * the common fork/join pool, small ones are aggregated sequentially. 
+	 * @param names = names of parties to include in the aggregate poll
+	 * @return = aggregate poll with desired parties. 
+	 */
+	public Poll getAggregatePollParallel(String[] names) {
+		return ParallelPollAggregation.aggregate(polls, 0, numOfPolls, names).getAggregatePoll();
+	}
+	
+	/**
+	 * Method to obtain the aggregate poll of a sliding window at every poll 
+	 * of the list, in the order the polls were added. 
+	 * @param maxPolls = number of most recent polls in the window, 0 for no limit. 
+	 * @param maxDays = number of days in the window, 0 for no limit. 
+	 * @param names = names of parties to include in the aggregate polls
+	 * @return = lazy stream of one aggregate poll per poll in the list. 
+	 */
+	public Stream<Poll> getRollingAggregatePolls(int maxPolls, int maxDays, String[] names) {
+		RollingPollAggregator window = new RollingPollAggregator(maxPolls, maxDays);
+		return window.aggregates(Arrays.stream(polls, 0, numOfPolls), names);
+	}
+	
+	/**
+	 * Method to obtain a text-based visualization, based on seats, 
+	 * for each poll in the list. 
+	 * @return = text visualization of polls. 
+	 */
+	public String textVisualizationBySeats() {
+		StringBuilder stringVisualization = new StringBuilder();
+		try {
+			textVisualizationBySeats(stringVisualization);
+		} catch (IOException e) { // a StringBuilder never throws
+			throw new UncheckedIOException(e);
+		}
+		return stringVisualization.toString();
+	}
+	
+	/**
+	 * Method to write the text-based visualization, based on seats, 
+	 * for each poll in the list without building a String first. 
+	 * @param out = where the visualization is written to. 
+	 * @throws IOException = if writing to out fails. 
+	 */
+	public void textVisualizationBySeats(Appendable out) throws IOException {
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		// seats per star rounding 
+		int seats = seatsPerStar();
+		
+		for (int index = 0; index < numOfPolls; index++) {
+			polls[index].textVisualizationBySeats(out, MAX_STARS_FOR_VISUALIZATION, seats);
+			out.append('\n');
+		}
+		if (Metrics.ENABLED) Metrics.POLL_LIST_VISUALIZATION_LATENCY.record(System.nanoTime() - start);
+	}
+	
+	/**
+	 * Method to write the text-based visualization, based on seats, 
+	 * for each poll in the list, only drawing the polls that changed 
+	 * since they were last drawn through the cache. 
+	 * @param out = where the visualization is written to. 
+	 * @param cache = cache of poll visualizations. 
+	 * @throws IOException = if writing to out fails. 
+	 */
+	public void textVisualizationBySeats(Appendable out, RenderCache cache) throws IOException {
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		int seats = seatsPerStar();
+		for (int index = 0; index < numOfPolls; index++) {
+			out.append(cache.textVisualizationBySeats(polls[index], MAX_STARS_FOR_VISUALIZATION, seats));
+			out.append('\n');
+		}
+		if (Metrics.ENABLED) Metrics.POLL_LIST_VISUALIZATION_LATENCY.record(System.nanoTime() - start);
+	}
+	
+	/**
+	 * Method to obtain a number of seats per star to be used 
+	 * for text visualization by seats.  
+	 * @return = number of seats per star. 
+	 */
+	public int seatsPerStar() {
+		return seatsPerStar(numOfSeats);
+	}
+	
+	/**
+	 * Method to obtain the number of seats per star for an election 
+	 * with the given number of seats. 
+	 * @param numOfSeats = number of seats available in the election. 
+	 * @return = number of seats per star. 
+	 */
+	static int seatsPerStar(int numOfSeats) {
+		int seatsPerStar = numOfSeats / MAX_STARS_FOR_VISUALIZATION;
+		float fseatsPerStar = (float)numOfSeats / MAX_STARS_FOR_VISUALIZATION;
+		// round up if seats don't exactly divide into stars 
+		if ((float)seatsPerStar != fseatsPerStar) {
+			seatsPerStar += 1;
+		}
+		
+		return seatsPerStar;
+	}
+	
+	/**
+	 * Method to obtain a text-based visualization, based on votes,
+	 * for each poll in the list.
+	 * @return = text visualization of polls. 
+	 */
+	public String textVisualizationByVotes() {
+		StringBuilder stringVisualization = new StringBuilder();
+		try {
+			textVisualizationByVotes(stringVisualization);
+		} catch (IOException e) { // a StringBuilder never throws
+			throw new UncheckedIOException(e);
+		}
+		return stringVisualization.toString();
+	}
+	
+	/**
+	 * Method to write the text-based visualization, based on votes, 
+	 * for each poll in the list without building a String first. 
+	 * @param out = where the visualization is written to. 
+	 * @throws IOException = if writing to out fails. 
+	 */
+	public void textVisualizationByVotes(Appendable out) throws IOException {
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		for (int index = 0; index < numOfPolls; index++) {
+			polls[index].textVisualizationByVotes(out, MAX_STARS_FOR_VISUALIZATION, 
+					100 / MAX_STARS_FOR_VISUALIZATION + 1);
+			out.append('\n');
+		}
+		if (Metrics.ENABLED) Metrics.POLL_LIST_VISUALIZATION_LATENCY.record(System.nanoTime() - start);
+	}
+	
+	/**
+	 * Method to write the text-based visualization, based on votes, 
+	 * for each poll in the list, only drawing the polls that changed 
+	 * since they were last drawn through the cache. 
+	 * @param out = where the visualization is written to. 
+	 * @param cache = cache of poll visualizations. 
+	 * @throws IOException = if writing to out fails. 
+	 */
+	public void textVisualizationByVotes(Appendable out, RenderCache cache) throws IOException {
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		for (int index = 0; index < numOfPolls; index++) {
+			out.append(cache.textVisualizationByVotes(polls[index], MAX_STARS_FOR_VISUALIZATION, 
+					100 / MAX_STARS_FOR_VISUALIZATION + 1));
+			out.append('\n');
+		}
+		if (Metrics.ENABLED) Metrics.POLL_LIST_VISUALIZATION_LATENCY.record(System.nanoTime() - start);
+	}
+	
+	/**
+	 * Method to obtain the number of seats and a text-based visualization
+	 * for each poll in the list. 
+	 * @return = text-based summary of Class instance. 
+	 */
+	public String toString() {
+		StringBuilder stringVisualization = new StringBuilder();
+		stringVisualization.append("Number of seats: ").append(numOfSeats).append('\n');
+		try {
+			textVisualizationBySeats(stringVisualization);
+		} catch (IOException e) { // a StringBuilder never throws
+			throw new UncheckedIOException(e);
+		}
+		return stringVisualization.toString();
+	}
+	
+	// PRIVATE METHODS
+	// a renamed party counts under its old and its new name
+	private void countPartyChange(Party party) {
+		int partyId = (party == null) ? -1 : registry.idOf(party.getName());
+		if (partyId < 0) {
+			return;
+		}
+		if (partyId >= partyChangeCounts.length) {
+			partyChangeCounts = Arrays.copyOf(partyChangeCounts, Math.max(partyId + 1, registry.size()));
+		}
+		partyChangeCounts[partyId]++;
+	}
+	
+	// METHODS USED BY PollQuery
+	Poll pollAt(int index) {
+		return polls[index];
+	}
+	
+	synchronized int getPartyChangeCount(int partyId) {
+		return (partyId < partyChangeCounts.length) ? partyChangeCounts[partyId] : 0;
+	}
+	
+	PollAggregator getRunningTotals() {
+		return runningTotals;
+	}
+	
+}
@@ -0,0 +1,172 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Reads and writes poll lists in a compact binary file so they can be kept
+ * between runs of the application. 
+ * <p>
+ * All numbers are big-endian and strings are UTF-8 prefixed by their length
+ * in bytes. A file holds, in order: 
+ * <ul>
+ * <li>a header: magic number, format version, number of seats, number of 
+ * party names, number of polls</li>
+ * <li>the party name dictionary, every distinct party name once</li>
+ * <li>the poll index, the file offset of every poll record as a long</li>
+ * <li>the poll records: poll name, maximum number of parties, sample size, 
+ * fielded date as a day count from 1970-01-01 (Long.MIN_VALUE if unknown), 
+ * number of parties, then for each party its dictionary id, seats and vote 
+ * percentage</li>
+ * </ul>
+ * Version 1 files have no sample size or fielded date and can still be opened.
+ * Because of the index, a file opened with {@link #open(Path)} only decodes 
+ * the polls that are asked for.
+ */
+public class PollListSnapshot {
+	
+	public static final int MAGIC = 0x504C4C53; // "PLLS"
+	public static final int VERSION = 2;
+	static final long NO_FIELDED_DATE = Long.MIN_VALUE;
+	static final int HEADER_SIZE = 5 * Integer.BYTES;
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	private PollListSnapshot() {
+	}
+	
+	/**
+	 * Method to write all polls of a list to a file, replacing the file if it exists. 
+	 * @param list = list of polls to write. 
+	 * @param file = file to write to. 
+	 * @throws IOException = if the file cannot be written. 
+	 */
+	public static void write(PollList list, Path file) throws IOException {
+		write(list.toArray(), list.getNumOfSeats(), file);
+	}
+	
+	/**
+	 * Method to write polls that are not in a PollList to a file, replacing 
+	 * the file if it exists. 
+	 * @param polls = polls to write, in the order they were added. 
+	 * @param seats = number of seats of the list the polls belong to. 
+	 * @param file = file to write to. 
+	 * @throws IOException = if the file cannot be written. 
+	 */
+	static void write(Poll[] polls, int seats, Path file) throws IOException {
+		// first pass: build the party name dictionary and the position of every record
+		HashMap<String, Integer> partyIds = new HashMap<String, Integer>();
+		ArrayList<byte[]> partyNames = new ArrayList<byte[]>();
+		byte[][] pollNames = new byte[polls.length][];
+		long dictionarySize = 0;
+		long[] recordSizes = new long[polls.length];
+		for (int index = 0; index < polls.length; index++) {
+			pollNames[index] = encode(polls[index].getPollName());
+			long recordSize = Integer.BYTES + pollNames[index].length + 3 * Integer.BYTES + Long.BYTES;
+			for (Party party : polls[index].getParties()) {
+				if (party == null) {
+					continue;
+				}
+				if (!partyIds.containsKey(party.getName())) {
+					partyIds.put(party.getName(), partyNames.size());
+					byte[] name = encode(party.getName());
+					partyNames.add(name);
+					dictionarySize += Integer.BYTES + name.length;
+				}
+				recordSize += Integer.BYTES + 2 * Float.BYTES;
+			}
+			recordSizes[index] = recordSize;
+		}
+		
+		// second pass: write everything sequentially
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, 
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(seats)
+					.putInt(partyNames.size()).putInt(polls.length);
+			for (byte[] name : partyNames) {
+				putBytes(channel, buffer, name);
+			}
+			
+			long offset = HEADER_SIZE + dictionarySize + (long) polls.length * Long.BYTES;
+			for (int index = 0; index < polls.length; index++) {
+				ensureRoom(channel, buffer, Long.BYTES);
+				buffer.putLong(offset);
+				offset += recordSizes[index];
+			}
+			
+			for (int index = 0; index < polls.length; index++) {
+				Poll poll = polls[index];
+				putBytes(channel, buffer, pollNames[index]);
+				ensureRoom(channel, buffer, 3 * Integer.BYTES + Long.BYTES);
+				Party[] parties = poll.getParties();
+				LocalDate fieldedDate = poll.getFieldedDate();
+				buffer.putInt(parties.length).putInt(poll.getSampleSize())
+						.putLong(fieldedDate == null ? NO_FIELDED_DATE : fieldedDate.toEpochDay())
+						.putInt(poll.getNumberOfParties());
+				// parties are written in the order they were added, the poll fills its array from the end
+				for (int partyIndex = parties.length - 1; partyIndex >= 0; partyIndex--) {
+					Party party = parties[partyIndex];
+					if (party != null) {
+						ensureRoom(channel, buffer, Integer.BYTES + 2 * Float.BYTES);
+						buffer.putInt(partyIds.get(party.getName()))
+								.putFloat(party.getProjectedNumberOfSeats())
+								.putFloat(party.getProjectedPercentageOfVotes());
+					}
+				}
+			}
+			flush(channel, buffer);
+		}
+	}
+	
+	/**
+	 * Method to open a file written by {@link #write(PollList, Path)}. The file 
+	 * is memory-mapped and polls are only decoded when they are asked for. 
+	 * @param file = file to open. 
+	 * @return = view of the polls in the file, to be closed when no longer needed. 
+	 * @throws IOException = if the file cannot be read or is not a poll list snapshot. 
+	 */
+	public static MappedPollList open(Path file) throws IOException {
+		return new MappedPollList(FileChannel.open(file, StandardOpenOption.READ));
+	}
+	
+	// PRIVATE METHODS
+	private static byte[] encode(String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+	
+	private static void putBytes(FileChannel channel, ByteBuffer buffer, byte[] bytes) throws IOException {
+		ensureRoom(channel, buffer, Integer.BYTES);
+		buffer.putInt(bytes.length);
+		if (bytes.length <= buffer.capacity()) {
+			ensureRoom(channel, buffer, bytes.length);
+			buffer.put(bytes);
+		}
+		else { // too large for the buffer, write it directly
+			flush(channel, buffer);
+			ByteBuffer large = ByteBuffer.wrap(bytes);
+			while (large.hasRemaining()) {
+				channel.write(large);
+			}
+		}
+	}
+	
+	private static void ensureRoom(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+		if (buffer.remaining() < bytes) {
+			flush(channel, buffer);
+		}
+	}
+	
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+	
+}
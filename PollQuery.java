@@ -0,0 +1,318 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.DoublePredicate;
+
+/**
+ * Query layer over the polls of a PollList, obtained from PollList.query().
+ * <p>
+ * Filters and top-k queries on a party read a column holding the seats or
+ * percentage of votes of that party in every poll, indexed by poll, instead
+ * of going through the parties of each poll. Columns are built the first
+ * time a party is queried and kept; polls added later are appended to them.
+ * A column is rebuilt when its party is replaced or set in one of the polls,
+ * the columns of the other parties are kept. Poll names are kept
+ * in a sorted index for prefix searches, which is extended as polls are
+ * added. Top-k queries keep the best k values in a small heap.
+ * <p>
+ * Results refer to the polls of the list, nothing is copied.
+ */
+public class PollQuery {
+
+	/**
+	 * What a query on a party looks at.
+	 */
+	public enum Measure {
+		SEATS, VOTES
+	}
+
+	private PollList list;
+	private PartyRegistry registry;
+	// columns of the queried parties, indexed by party ID
+	private PartyColumn[] columns = new PartyColumn[8];
+	// holder for the party averages used by topParties
+	private AggregateResult averages = new AggregateResult();
+	// indexes of the polls sorted by name, ignoring case
+	private int[] sortedByName = new int[0];
+	private int namesIndexed;
+
+	PollQuery(PollList list) {
+		this.list = list;
+		this.registry = list.getPartyRegistry();
+	}
+
+	/**
+	 * Method to obtain the parties with the highest average over the list.
+	 * @param k = number of parties to return.
+	 * @param by = whether to rank by seats or by percentage of votes.
+	 * @return = names of at most k parties, highest first. Ties go to the party seen first.
+	 */
+	public String[] topParties(int k, Measure by) {
+		list.fillAggregate(averages);
+		float[] values = new float[averages.size()];
+		for (int position = 0; position < values.length; position++) {
+			values[position] = (by == Measure.SEATS) ? averages.getProjectedNumberOfSeats(position)
+					: averages.getProjectedPercentageOfVotes(position);
+		}
+		int[] top = topK(values, values.length, k);
+		String[] names = new String[top.length];
+		for (int rank = 0; rank < top.length; rank++) {
+			names[rank] = averages.getPartyName(top[rank]);
+		}
+		return names;
+	}
+
+	/**
+	 * Method to obtain the polls in which a party does best.
+	 * @param partyName = name of the party.
+	 * @param k = number of polls to return.
+	 * @param by = whether to rank by seats or by percentage of votes.
+	 * @return = at most k polls that have the party, highest first. Ties go to the poll added first.
+	 */
+	public Poll[] topPolls(String partyName, int k, Measure by) {
+		float[] values = column(partyName, by);
+		int[] top = topK(values, list.getNumOfPolls(), k);
+		Poll[] result = new Poll[top.length];
+		for (int rank = 0; rank < top.length; rank++) {
+			result[rank] = list.pollAt(top[rank]);
+		}
+		return result;
+	}
+
+	/**
+	 * Method to obtain the polls in which the seats or percentage of votes
+	 * of a party meet a condition. Polls without the party never match.
+	 * @param partyName = name of the party.
+	 * @param by = whether the condition is on seats or on percentage of votes.
+	 * @param condition = condition on the value, percentages are between 0 and 1.
+	 * @return = matching polls, in the order they were added.
+	 */
+	public Poll[] pollsWhere(String partyName, Measure by, DoublePredicate condition) {
+		float[] values = column(partyName, by);
+		int numOfPolls = list.getNumOfPolls();
+		Poll[] matches = new Poll[8];
+		int count = 0;
+		for (int index = 0; index < numOfPolls; index++) {
+			float value = values[index];
+			if (value == value && condition.test(value)) { // NaN when the poll does not have the party
+				if (count == matches.length) {
+					matches = Arrays.copyOf(matches, count * 2);
+				}
+				matches[count++] = list.pollAt(index);
+			}
+		}
+		return Arrays.copyOf(matches, count);
+	}
+
+	/**
+	 * Method to obtain the polls in which a party has more than the given
+	 * seats or percentage of votes, such as pollsAbove("NDP", Measure.VOTES, 0.35f).
+	 * @param partyName = name of the party.
+	 * @param by = whether to compare seats or percentage of votes.
+	 * @param threshold = value the party must exceed.
+	 * @return = matching polls, in the order they were added.
+	 */
+	public Poll[] pollsAbove(String partyName, Measure by, float threshold) {
+		return pollsWhere(partyName, by, value -> value > threshold);
+	}
+
+	/**
+	 * Method to obtain the polls whose name starts with a prefix, ignoring case.
+	 * @param prefix = start of the poll names to find.
+	 * @return = matching polls, sorted by name.
+	 */
+	public Poll[] pollsWithPrefix(String prefix) {
+		updateNameIndex();
+		// names with the prefix sort together, starting at the first name not below it
+		int low = 0;
+		int high = namesIndexed;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (String.CASE_INSENSITIVE_ORDER.compare(nameAt(middle), prefix) < 0) {
+				low = middle + 1;
+			}
+			else {
+				high = middle;
+			}
+		}
+		int end = low;
+		while (end < namesIndexed && nameAt(end).regionMatches(true, 0, prefix, 0, prefix.length())) {
+			end++;
+		}
+		Poll[] matches = new Poll[end - low];
+		for (int position = low; position < end; position++) {
+			matches[position - low] = list.pollAt(sortedByName[position]);
+		}
+		return matches;
+	}
+
+	/**
+	 * Method to obtain the up to date column of a party, indexed by poll,
+	 * with NaN for polls that do not have the party. The column may be longer
+	 * than the number of polls and must not be changed.
+	 */
+	float[] column(String partyName, Measure by) {
+		int numOfPolls = list.getNumOfPolls();
+		int partyId = registry.idOf(partyName);
+		if (partyId < 0) {
+			float[] empty = new float[numOfPolls];
+			Arrays.fill(empty, Float.NaN);
+			return empty;
+		}
+		if (partyId >= columns.length) {
+			columns = Arrays.copyOf(columns, Math.max(partyId + 1, columns.length * 2));
+		}
+		PartyColumn column = columns[partyId];
+		int changeCount = list.getPartyChangeCount(partyId);
+		if (column == null || column.changeCount != changeCount) {
+			column = new PartyColumn(Math.max(numOfPolls, 8));
+			column.changeCount = changeCount;
+			columns[partyId] = column;
+		}
+		if (column.numOfPolls < numOfPolls) {
+			column.extend(partyId, partyName, numOfPolls);
+		}
+		return (by == Measure.SEATS) ? column.seats : column.percentages;
+	}
+
+	// PRIVATE METHODS
+	private void updateNameIndex() {
+		int numOfPolls = list.getNumOfPolls();
+		if (namesIndexed == numOfPolls) {
+			return;
+		}
+		// sort the new polls, then merge them with the ones already indexed
+		Integer[] added = new Integer[numOfPolls - namesIndexed];
+		for (int index = 0; index < added.length; index++) {
+			added[index] = namesIndexed + index;
+		}
+		Comparator<Integer> byName = (first, second) -> String.CASE_INSENSITIVE_ORDER.compare(
+				pollName(first), pollName(second));
+		Arrays.sort(added, byName);
+		int[] merged = new int[numOfPolls];
+		int old = 0;
+		int fresh = 0;
+		for (int position = 0; position < numOfPolls; position++) {
+			if (fresh == added.length
+					|| (old < namesIndexed && byName.compare(sortedByName[old], added[fresh]) <= 0)) {
+				merged[position] = sortedByName[old++];
+			}
+			else {
+				merged[position] = added[fresh++];
+			}
+		}
+		sortedByName = merged;
+		namesIndexed = numOfPolls;
+	}
+
+	private String nameAt(int position) {
+		return pollName(sortedByName[position]);
+	}
+
+	private String pollName(int index) {
+		String name = list.pollAt(index).getPollName();
+		return (name == null) ? "" : name;
+	}
+
+	/**
+	 * Method to find the indexes of the k largest values, largest first,
+	 * keeping the best k seen so far in a min-heap. NaN values are skipped.
+	 */
+	private static int[] topK(float[] values, int count, int k) {
+		int[] heap = new int[Math.max(0, Math.min(k, count))];
+		int size = 0;
+		for (int index = 0; index < count && heap.length > 0; index++) {
+			if (values[index] != values[index]) {
+				continue;
+			}
+			if (size < heap.length) {
+				heap[size] = index;
+				siftUp(heap, size++, values);
+			}
+			else if (ranksBelow(heap[0], index, values)) {
+				heap[0] = index;
+				siftDown(heap, size, values);
+			}
+		}
+		// take the smallest off the heap until it is empty, filling the result from the end
+		int[] top = new int[size];
+		for (int rank = size - 1; rank >= 0; rank--) {
+			top[rank] = heap[0];
+			heap[0] = heap[--size];
+			siftDown(heap, size, values);
+		}
+		return top;
+	}
+
+	// whether the value at first ranks below the one at second, earlier indexes win ties
+	private static boolean ranksBelow(int first, int second, float[] values) {
+		return values[first] < values[second] || (values[first] == values[second] && first > second);
+	}
+
+	private static void siftUp(int[] heap, int position, float[] values) {
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			if (!ranksBelow(heap[position], heap[parent], values)) {
+				return;
+			}
+			int swap = heap[parent];
+			heap[parent] = heap[position];
+			heap[position] = swap;
+			position = parent;
+		}
+	}
+
+	private static void siftDown(int[] heap, int size, float[] values) {
+		int position = 0;
+		while (true) {
+			int lowest = position;
+			int left = 2 * position + 1;
+			int right = left + 1;
+			if (left < size && ranksBelow(heap[left], heap[lowest], values)) {
+				lowest = left;
+			}
+			if (right < size && ranksBelow(heap[right], heap[lowest], values)) {
+				lowest = right;
+			}
+			if (lowest == position) {
+				return;
+			}
+			int swap = heap[lowest];
+			heap[lowest] = heap[position];
+			heap[position] = swap;
+			position = lowest;
+		}
+	}
+
+	/**
+	 * Seats and percentage of votes of one party in every poll of the list.
+	 */
+	private class PartyColumn {
+		private float[] seats;
+		private float[] percentages;
+		private int numOfPolls;
+		private int changeCount;
+
+		PartyColumn(int capacity) {
+			seats = new float[capacity];
+			percentages = new float[capacity];
+		}
+
+		void extend(int partyId, String partyName, int newNumOfPolls) {
+			if (newNumOfPolls > seats.length) {
+				int newLength = Math.max(newNumOfPolls, seats.length * 2);
+				seats = Arrays.copyOf(seats, newLength);
+				percentages = Arrays.copyOf(percentages, newLength);
+			}
+			for (int index = numOfPolls; index < newNumOfPolls; index++) {
+				Poll poll = list.pollAt(index);
+				// a poll added to another list first has its IDs from that list
+				Party party = (poll.getPartyRegistry() == registry) ? poll.findParty(partyId)
+						: poll.findParty(poll.getPartyRegistry().idOf(partyName));
+				seats[index] = (party == null) ? Float.NaN : party.getProjectedNumberOfSeats();
+				percentages[index] = (party == null) ? Float.NaN : party.getProjectedPercentageOfVotes();
+			}
+			numOfPolls = newNumOfPolls;
+		}
+	}
+
+}
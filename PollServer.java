@@ -0,0 +1,262 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Small HTTP server that serves the text visualizations of a poll list:
+ * <pre>
+ *   GET /seats                     every poll by seats
+ *   GET /votes                     every poll by votes
+ *   GET /poll/&lt;name&gt;?type=votes   one poll, by seats unless type=votes
+ *   GET /aggregate?type=votes&amp;parties=a,b   aggregate poll, every party unless parties is given
+ * </pre>
+ * Rendered responses are cached together with the version of the list they
+ * were rendered from, and rendered again once PollList.getVersion changes,
+ * so many readers of an unchanged list share one rendering.
+ * <p>
+ * Rendering holds the lock of the poll list, which PollList.addPoll and the
+ * updates of its totals also take, so a response never shows a poll half
+ * added. Requests that waited for the lock while another request rendered
+ * the same response find it in the cache.
+ * <p>
+ * Requests are handled on virtual threads when the Java runtime has them,
+ * and on a cached thread pool otherwise.
+ * <p>
+ * On a kept-alive connection Nagle's algorithm holds back the body of a
+ * response until the client's delayed ACK, about 40ms per request. The JDK
+ * server only turns it off through the system property
+ * sun.net.httpserver.nodelay, which it reads once, when the first HttpServer
+ * of the process is created. A server created with noDelay sets that
+ * property, which changes every HttpServer in the process, and only has an
+ * effect if no HttpServer was created before.
+ */
+public class PollServer {
+
+	// the cache is emptied when it holds more responses than this
+	private static final int MAX_CACHED_RESPONSES = 1024;
+
+	private PollList list;
+	private HttpServer server;
+	private ExecutorService executor;
+	private ConcurrentHashMap<String, Rendering> cache = new ConcurrentHashMap<String, Rendering>();
+
+	/**
+	 * Constructor for PollServer class, the server listens once start is called.
+	 * @param list = poll list to serve.
+	 * @param port = port to listen on, 0 for any free port.
+	 * @throws IOException = if the port cannot be opened.
+	 */
+	public PollServer(PollList list, int port) throws IOException {
+		this(list, new InetSocketAddress(port), false);
+	}
+
+	/**
+	 * Constructor for PollServer class, the server listens once start is called.
+	 * @param list = poll list to serve.
+	 * @param address = address to listen on.
+	 * @param noDelay = whether to send responses without waiting for the 
+	 * client's ACK, for every HttpServer in the process, see the class description.
+	 * @throws IOException = if the address cannot be opened.
+	 */
+	public PollServer(PollList list, InetSocketAddress address, boolean noDelay) throws IOException {
+		this.list = list;
+		// has to be set before the JDK creates its first server, an explicit setting is kept
+		if (noDelay && System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+		server = HttpServer.create(address, 0);
+		server.createContext("/", this::handle);
+	}
+
+	/**
+	 * Method to start answering requests.
+	 */
+	public void start() {
+		executor = newRequestExecutor();
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	/**
+	 * Method to stop the server, waiting for requests being answered to finish.
+	 * @param delaySeconds = longest time to wait for requests being answered.
+	 */
+	public void stop(int delaySeconds) {
+		server.stop(delaySeconds);
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Method to obtain the port the server listens on, useful when it was created with port 0.
+	 * @return = port number.
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	// PRIVATE METHODS
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			respond(exchange);
+		} catch (RuntimeException e) {
+			System.out.println("Error: request for " + exchange.getRequestURI() + " failed. " + e);
+			send(exchange, 500, "Internal server error\n".getBytes(StandardCharsets.UTF_8));
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private void respond(HttpExchange exchange) throws IOException {
+		if (!exchange.getRequestMethod().equals("GET")) {
+			send(exchange, 405, "Only GET is supported\n".getBytes(StandardCharsets.UTF_8));
+			return;
+		}
+		String path = exchange.getRequestURI().getPath();
+		String query = exchange.getRequestURI().getRawQuery();
+		boolean byVotes = "votes".equals(parameter(query, "type"));
+		byte[] body;
+		if (path.equals("/seats") || path.equals("/votes")) {
+			body = cached(path, () -> path.equals("/seats")
+					? list.textVisualizationBySeats() : list.textVisualizationByVotes());
+		}
+		else if (path.startsWith("/poll/")) {
+			String name = path.substring("/poll/".length());
+			Poll poll = findPoll(name);
+			if (poll == null) {
+				send(exchange, 404, ("No poll named " + name + "\n").getBytes(StandardCharsets.UTF_8));
+				return;
+			}
+			body = cached("/poll/" + name.toLowerCase(Locale.ROOT) + (byVotes ? "?votes" : "?seats"),
+					() -> render(poll, byVotes));
+		}
+		else if (path.equals("/aggregate")) {
+			String parties = parameter(query, "parties");
+			body = cached("/aggregate?" + (byVotes ? "votes" : "seats") + "&" + parties, () -> {
+				String[] names = (parties == null) ? list.getPartyNames() : parties.split(",");
+				return render(list.getAggregatePoll(names), byVotes);
+			});
+		}
+		else {
+			send(exchange, 404, "Unknown path, use /seats, /votes, /poll/<name> or /aggregate\n"
+					.getBytes(StandardCharsets.UTF_8));
+			return;
+		}
+		send(exchange, 200, body);
+	}
+
+	/**
+	 * Method to obtain the response for a key, rendering it again only if the
+	 * list changed since it was cached.
+	 */
+	private byte[] cached(String key, Renderer renderer) {
+		Rendering rendering = cache.get(key);
+		if (rendering != null && rendering.version == list.getVersion()) {
+			return rendering.body;
+		}
+		if (cache.size() > MAX_CACHED_RESPONSES) {
+			cache.clear();
+		}
+		synchronized (list) {
+			rendering = cache.get(key);
+			long version = list.getVersion();
+			if (rendering != null && rendering.version == version) {
+				return rendering.body; // rendered by another request while this one waited
+			}
+			rendering = new Rendering(version, renderer.render().getBytes(StandardCharsets.UTF_8));
+		}
+
+		// keep the rendering of the newest version, another request may have stored a newer one
+		Rendering old = cache.putIfAbsent(key, rendering);
+		while (old != null && old.version < rendering.version && !cache.replace(key, old, rendering)) {
+			old = cache.putIfAbsent(key, rendering);
+		}
+		return rendering.body;
+	}
+
+	private String render(Poll poll, boolean byVotes) {
+		if (byVotes) {
+			return poll.textVisualizationByVotes(PollList.MAX_STARS_FOR_VISUALIZATION,
+					100 / PollList.MAX_STARS_FOR_VISUALIZATION + 1);
+		}
+		return poll.textVisualizationBySeats(PollList.MAX_STARS_FOR_VISUALIZATION, list.seatsPerStar());
+	}
+
+	private Poll findPoll(String name) {
+		synchronized (list) {
+			for (Poll poll : list.query().pollsWithPrefix(name)) {
+				if (name.equalsIgnoreCase(poll.getPollName())) {
+					return poll;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	private static String parameter(String query, String name) {
+		if (query == null) {
+			return null;
+		}
+		for (String pair : query.split("&")) {
+			int equals = pair.indexOf('=');
+			if (equals > 0 && pair.substring(0, equals).equals(name)) {
+				return URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Method to obtain an executor that runs every request on a new virtual
+	 * thread, looked up by reflection so the server also runs on Java
+	 * versions without virtual threads, where a cached thread pool is used.
+	 */
+	private static ExecutorService newRequestExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool();
+		}
+	}
+
+	/**
+	 * Rendering of the list, done while holding its lock.
+	 */
+	private interface Renderer {
+		String render();
+	}
+
+	/**
+	 * Cached response and the version of the list it was rendered from.
+	 */
+	private static class Rendering {
+		private final long version;
+		private final byte[] body;
+
+		Rendering(long version, byte[] body) {
+			this.version = version;
+			this.body = body;
+		}
+	}
+
+}
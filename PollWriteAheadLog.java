@@ -0,0 +1,721 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead log that keeps the polls of a poll list safe when the process
+ * dies. Every poll added with addPoll, and every later change to the parties
+ * of those polls, made with Poll.addParty or the setters of a Party, is
+ * appended to a log file in the log directory as a record:
+ * <pre>
+ *   int    length of the payload in bytes
+ *   int    CRC32C checksum of the payload
+ *   long   log sequence number (LSN), one more than the record before
+ *   byte   POLL_ADDED, PARTY_ADDED or PARTY_RENAMED
+ *   ...    the poll with its parties, or the index of a poll and the party as
+ *          it is after the change, preceded by its old name if it was renamed
+ * </pre>
+ * Records are buffered and written to disk by sync(). Syncs are grouped: one
+ * FileChannel.force covers every record appended before it, and threads that
+ * call sync while a force is running wait for it and then usually find their
+ * records covered already. A background thread syncs every syncIntervalMillis,
+ * so a crash loses at most the records of that interval.
+ * <p>
+ * Once compactionThreshold records have been logged since the last snapshot,
+ * the background thread writes the whole list as a PollListSnapshot named
+ * after the last LSN it holds, then deletes the log files and snapshots it
+ * replaces. The polls are copied under the lock, the snapshot is written
+ * from the copies while polls can still be added. Opening the directory loads the latest snapshot and replays only
+ * the records logged after it. A record that is cut short or has the wrong
+ * checksum was being written when the process died; it marks the end of the
+ * log and is cut off.
+ * <p>
+ * Polls have to be added through addPoll, not to getPollList() directly. A
+ * change to a party that cannot be logged is not undone, as the party has
+ * already changed; the log is marked failed instead, and every later call to
+ * addPoll, sync or checkpoint throws an IOException.
+ */
+public class PollWriteAheadLog implements Closeable {
+
+	public static final long DEFAULT_SYNC_INTERVAL_MILLIS = 100;
+	public static final int DEFAULT_COMPACTION_THRESHOLD = 100000;
+	static final byte POLL_ADDED = 1;
+	static final byte PARTY_ADDED = 2;
+	static final byte PARTY_RENAMED = 3;
+	private static final String SEGMENT_PREFIX = "wal-";
+	private static final String SEGMENT_SUFFIX = ".log";
+	private static final String SNAPSHOT_PREFIX = "snapshot-";
+	private static final String SNAPSHOT_SUFFIX = ".pls";
+	private static final String TEMP_SUFFIX = ".tmp";
+	private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int REPLAY_BUFFER_SIZE = 1024 * 1024;
+	// a payload length outside these bounds can only come from a torn record
+	private static final int MIN_PAYLOAD_SIZE = Long.BYTES + 1;
+	private static final int MAX_PAYLOAD_SIZE = 64 * 1024 * 1024;
+
+	private final Path directory;
+	private final int compactionThreshold;
+	private final PollList list;
+	// held while forcing, so one thread forces at a time, always taken before the lock on this
+	private final Object syncLock = new Object();
+	// held for the whole of a checkpoint, always taken before syncLock
+	private final Object checkpointLock = new Object();
+	private final CRC32C checksum = new CRC32C();
+	private final ArrayList<PartyLogger> partyLoggers = new ArrayList<PartyLogger>();
+	private final CountDownLatch stopSyncer = new CountDownLatch(1);
+	private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private ByteBuffer record = ByteBuffer.allocate(BUFFER_SIZE);
+	private FileChannel segment;
+	private long lastLsn;
+	private volatile long durableLsn;
+	private long snapshotLsn;
+	private Thread syncer;
+	private boolean closed;
+	// why a change could not be logged, the list then holds more than the log
+	private IOException failure;
+
+	/**
+	 * Method to open the log in a directory with the default sync interval and
+	 * compaction threshold, recovering the polls logged there before.
+	 * @param directory = directory of the log, created if it does not exist.
+	 * @param seats = number of seats of the poll list, used if the directory
+	 * holds no snapshot yet.
+	 * @return = open log.
+	 * @throws IOException = if the log cannot be read or written.
+	 */
+	public static PollWriteAheadLog open(Path directory, int seats) throws IOException {
+		return open(directory, seats, DEFAULT_SYNC_INTERVAL_MILLIS, DEFAULT_COMPACTION_THRESHOLD);
+	}
+
+	/**
+	 * Method to open the log in a directory, recovering the polls logged there before.
+	 * @param directory = directory of the log, created if it does not exist.
+	 * @param seats = number of seats of the poll list, used if the directory
+	 * holds no snapshot yet.
+	 * @param syncIntervalMillis = time between background syncs, 0 or less for
+	 * none, in which case sync and checkpoint have to be called by the user.
+	 * @param compactionThreshold = number of records logged after the last
+	 * snapshot that makes the background thread write a new one.
+	 * @return = open log.
+	 * @throws IOException = if the log cannot be read or written.
+	 */
+	public static PollWriteAheadLog open(Path directory, int seats, long syncIntervalMillis,
+			int compactionThreshold) throws IOException {
+		PollWriteAheadLog log = new PollWriteAheadLog(directory, seats, compactionThreshold);
+		if (syncIntervalMillis > 0) {
+			log.startSyncer(syncIntervalMillis);
+		}
+		return log;
+	}
+
+	private PollWriteAheadLog(Path directory, int seats, int compactionThreshold) throws IOException {
+		this.directory = directory;
+		this.compactionThreshold = Math.max(compactionThreshold, 1);
+		Files.createDirectories(directory);
+
+		// snapshots that were being written when the process died
+		try (DirectoryStream<Path> temps = Files.newDirectoryStream(directory, "*" + TEMP_SUFFIX)) {
+			for (Path temp : temps) {
+				Files.delete(temp);
+			}
+		}
+
+		long[] snapshots = fileLsns(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+		if (snapshots.length > 0) {
+			snapshotLsn = snapshots[snapshots.length - 1];
+			try (MappedPollList mapped = PollListSnapshot.open(snapshotPath(snapshotLsn))) {
+				list = mapped.toPollList();
+			}
+		}
+		else {
+			list = new PollList(seats);
+		}
+		lastLsn = snapshotLsn;
+		replay();
+		durableLsn = lastLsn;
+
+		// parties added from now on are logged
+		for (int index = 0; index < list.getNumOfPolls(); index++) {
+			logPartiesOf(list.pollAt(index), index);
+		}
+		segment = openSegment(lastLsn + 1);
+	}
+
+	/**
+	 * Method to add a poll to the list, logging it first. The poll is durable
+	 * once sync returns or the background thread has synced.
+	 * @param poll = poll to add.
+	 * @return = LSN of the record of the poll, or -1 if the poll was not added.
+	 * @throws IOException = if the record cannot be written, the poll is not added then.
+	 */
+	public synchronized long addPoll(Poll poll) throws IOException {
+		ensureOpen();
+		if (poll == null) {
+			list.addPoll(poll); // prints the error
+			return -1;
+		}
+
+		Party[] parties = poll.getParties();
+		byte[] name = encode(poll.getPollName());
+		byte[][] partyNames = new byte[parties.length][];
+		int size = MIN_PAYLOAD_SIZE + Integer.BYTES + name.length + 3 * Integer.BYTES + Long.BYTES;
+		for (int slot = 0; slot < parties.length; slot++) {
+			if (parties[slot] != null) {
+				partyNames[slot] = encode(parties[slot].getName());
+				size += Integer.BYTES + partyNames[slot].length + 2 * Float.BYTES;
+			}
+		}
+
+		ByteBuffer payload = startRecord(size, POLL_ADDED);
+		LocalDate fieldedDate = poll.getFieldedDate();
+		payload.putInt(name.length).put(name).putInt(parties.length).putInt(poll.getSampleSize())
+				.putLong(fieldedDate == null ? PollListSnapshot.NO_FIELDED_DATE : fieldedDate.toEpochDay())
+				.putInt(poll.getNumberOfParties());
+		// parties are logged in the order they were added, the poll fills its array from the end
+		for (int slot = parties.length - 1; slot >= 0; slot--) {
+			if (parties[slot] != null) {
+				putParty(payload, partyNames[slot], parties[slot]);
+			}
+		}
+		long lsn = append(payload);
+
+		int index = list.getNumOfPolls();
+		list.addPoll(poll);
+		logPartiesOf(poll, index);
+		return lsn;
+	}
+
+	/**
+	 * Method to write every record logged so far to disk, returning once it
+	 * is there. Records of other threads are written by the same force.
+	 * @throws IOException = if the log cannot be written.
+	 */
+	public void sync() throws IOException {
+		long target;
+		synchronized (this) {
+			ensureOpen();
+			target = lastLsn;
+		}
+		if (durableLsn >= target) {
+			return;
+		}
+		synchronized (syncLock) {
+			// a force that ran while this thread waited may have covered its records
+			if (durableLsn >= target) {
+				return;
+			}
+			long covered;
+			FileChannel channel;
+			synchronized (this) {
+				ensureOpen();
+				flushBuffer();
+				covered = lastLsn;
+				channel = segment;
+			}
+			// records appended while forcing wait for the next force
+			long start = Metrics.ENABLED ? System.nanoTime() : 0;
+			channel.force(false);
+			if (Metrics.ENABLED) Metrics.LOG_SYNC_LATENCY.record(System.nanoTime() - start);
+			durableLsn = covered;
+		}
+	}
+
+	/**
+	 * Method to write the whole list to a new snapshot and delete the log
+	 * files and snapshots it replaces, so opening the log only has to replay
+	 * what is logged after it. The polls are only locked while they are 
+	 * copied, not while the snapshot is written.
+	 * @throws IOException = if the snapshot cannot be written.
+	 */
+	public void checkpoint() throws IOException {
+		synchronized (checkpointLock) {
+			long lsn;
+			Poll[] polls;
+			synchronized (syncLock) {
+				synchronized (this) {
+					ensureOpen();
+					flushBuffer();
+					segment.force(false);
+					durableLsn = lastLsn;
+					if (lastLsn == snapshotLsn) {
+						return;
+					}
+
+					// polls are only appended, so the first polls and the LSN describe the list
+					lsn = lastLsn;
+					polls = new Poll[list.getNumOfPolls()];
+					for (int index = 0; index < polls.length; index++) {
+						polls[index] = copyOf(list.pollAt(index));
+					}
+					// records after the snapshot go to a file the snapshot does not replace
+					segment.close();
+					segment = openSegment(lsn + 1);
+				}
+			}
+
+			// written under a temporary name, so a snapshot is never seen half written
+			Path temp = directory.resolve(SNAPSHOT_PREFIX + lsn + SNAPSHOT_SUFFIX + TEMP_SUFFIX);
+			PollListSnapshot.write(polls, list.getNumOfSeats(), temp);
+			try (FileChannel written = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				written.force(true);
+			}
+			Files.move(temp, snapshotPath(lsn), StandardCopyOption.ATOMIC_MOVE);
+			forceDirectory();
+
+			synchronized (this) {
+				snapshotLsn = lsn;
+			}
+			// everything in the older files is in the snapshot now
+			for (long first : fileLsns(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+				if (first <= lsn) {
+					Files.deleteIfExists(segmentPath(first));
+				}
+			}
+			for (long older : fileLsns(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+				if (older < lsn) {
+					Files.deleteIfExists(snapshotPath(older));
+				}
+			}
+			if (Metrics.ENABLED) Metrics.LOG_CHECKPOINTS.increment();
+		}
+	}
+
+	/**
+	 * Getter methods that return the list kept by the log, the LSN of the
+	 * last record logged, of the last record known to be on disk and of the
+	 * last record in the latest snapshot.
+	 */
+	public PollList getPollList() {
+		return list;
+	}
+
+	public synchronized long getLastLsn() {
+		return lastLsn;
+	}
+
+	public long getDurableLsn() {
+		return durableLsn;
+	}
+
+	public synchronized long getSnapshotLsn() {
+		return snapshotLsn;
+	}
+
+	/**
+	 * Method to stop the background thread, sync the log and close it. Parties
+	 * added to the polls afterwards are no longer logged.
+	 * @throws IOException = if the log cannot be written.
+	 */
+	public void close() throws IOException {
+		stopSyncer.countDown();
+		if (syncer != null) {
+			try {
+				syncer.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		synchronized (syncLock) {
+			synchronized (this) {
+				if (closed) {
+					return;
+				}
+				closed = true;
+				for (PartyLogger logger : partyLoggers) {
+					logger.poll.removeChangeListener(logger);
+				}
+				partyLoggers.clear();
+				try {
+					flushBuffer();
+					segment.force(false);
+					durableLsn = lastLsn;
+				} finally {
+					segment.close();
+				}
+			}
+		}
+	}
+
+	// PRIVATE METHODS
+	private void startSyncer(long intervalMillis) {
+		syncer = new Thread(() -> {
+			try {
+				while (!stopSyncer.await(intervalMillis, TimeUnit.MILLISECONDS)) {
+					try {
+						sync();
+						if (compactionDue()) {
+							checkpoint();
+						}
+					} catch (IOException e) {
+						System.out.println("Error: write-ahead log could not be written. " + e.getMessage());
+					}
+				}
+			} catch (InterruptedException e) {
+				// stop syncing, close() syncs one last time
+			}
+		}, "poll-wal-sync");
+		syncer.setDaemon(true);
+		syncer.start();
+	}
+
+	private synchronized boolean compactionDue() {
+		return !closed && lastLsn - snapshotLsn >= compactionThreshold;
+	}
+
+	private void logPartiesOf(Poll poll, int index) {
+		PartyLogger logger = new PartyLogger(poll, index);
+		partyLoggers.add(logger);
+		poll.addChangeListener(logger);
+	}
+
+	/**
+	 * Method to log a change to a party of a poll. It is called from the
+	 * listeners of the poll once the party has changed, so it cannot throw;
+	 * a failure is kept and thrown by the next call to the log instead.
+	 */
+	private synchronized void logParty(int pollIndex, Party oldParty, Party party) {
+		if (closed || failure != null) {
+			return;
+		}
+		try {
+			byte[] name = encode(party.getName());
+			boolean renamed = oldParty != null 
+					&& !Poll.partyKey(oldParty.getName()).equals(Poll.partyKey(party.getName()));
+			ByteBuffer payload;
+			if (renamed) {
+				byte[] oldName = encode(oldParty.getName());
+				payload = startRecord(MIN_PAYLOAD_SIZE + 3 * Integer.BYTES + oldName.length + name.length
+						+ 2 * Float.BYTES, PARTY_RENAMED);
+				payload.putInt(pollIndex).putInt(oldName.length).put(oldName);
+			}
+			else {
+				payload = startRecord(MIN_PAYLOAD_SIZE + 2 * Integer.BYTES + name.length
+						+ 2 * Float.BYTES, PARTY_ADDED);
+				payload.putInt(pollIndex);
+			}
+			putParty(payload, name, party);
+			append(payload);
+		} catch (IOException e) {
+			failure = e;
+			System.out.println("Error: change to party " + party.getName() + " could not be logged. " 
+					+ e.getMessage());
+		}
+	}
+
+	private ByteBuffer startRecord(int payloadSize, byte type) {
+		if (record.capacity() < payloadSize) {
+			record = ByteBuffer.allocate(payloadSize);
+		}
+		record.clear();
+		record.putLong(lastLsn + 1).put(type);
+		return record;
+	}
+
+	private static void putParty(ByteBuffer payload, byte[] name, Party party) {
+		payload.putInt(name.length).put(name)
+				.putFloat(party.getProjectedNumberOfSeats())
+				.putFloat(party.getProjectedPercentageOfVotes());
+	}
+
+	private long append(ByteBuffer payload) throws IOException {
+		payload.flip();
+		checksum.reset();
+		checksum.update(payload);
+		payload.rewind();
+		int bytes = RECORD_HEADER_SIZE + payload.remaining();
+		if (buffer.remaining() < bytes) {
+			flushBuffer();
+			if (buffer.capacity() < bytes) {
+				buffer = ByteBuffer.allocate(bytes);
+			}
+		}
+		buffer.putInt(payload.remaining()).putInt((int) checksum.getValue()).put(payload);
+		lastLsn++;
+		if (Metrics.ENABLED) Metrics.LOG_RECORDS.increment();
+		return lastLsn;
+	}
+
+	private void flushBuffer() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			segment.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	private void ensureOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Write-ahead log is closed");
+		}
+		if (failure != null) {
+			throw new IOException("Write-ahead log failed to log a change to a party", failure);
+		}
+	}
+
+	/**
+	 * Method to replay the records logged after the snapshot, deleting log
+	 * files the snapshot covers and cutting the log off at the first record
+	 * that is torn or out of sequence.
+	 */
+	private void replay() throws IOException {
+		long[] segments = fileLsns(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+		boolean ended = false;
+		for (int index = 0; index < segments.length; index++) {
+			Path path = segmentPath(segments[index]);
+			boolean inSnapshot = index + 1 < segments.length && segments[index + 1] <= snapshotLsn + 1;
+			if (inSnapshot || ended) { // left behind by a checkpoint, or after the end of the log
+				Files.delete(path);
+			}
+			else {
+				ended = !replaySegment(path);
+			}
+		}
+	}
+
+	/**
+	 * Method to replay the records of one log file.
+	 * @return = true if the file ended with a complete record.
+	 */
+	private boolean replaySegment(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer in = ByteBuffer.allocate(REPLAY_BUFFER_SIZE);
+			in.flip();
+			long position = 0; // end of the last good record
+			while (fill(channel, in, RECORD_HEADER_SIZE)) {
+				int length = in.getInt(in.position());
+				int expectedChecksum = in.getInt(in.position() + Integer.BYTES);
+				if (length < MIN_PAYLOAD_SIZE || length > MAX_PAYLOAD_SIZE) {
+					break;
+				}
+				if (in.capacity() < RECORD_HEADER_SIZE + length) {
+					in = ByteBuffer.allocate(RECORD_HEADER_SIZE + length).put(in).flip();
+				}
+				if (!fill(channel, in, RECORD_HEADER_SIZE + length)) {
+					break;
+				}
+				ByteBuffer payload = in.slice(in.position() + RECORD_HEADER_SIZE, length);
+				checksum.reset();
+				checksum.update(payload);
+				if ((int) checksum.getValue() != expectedChecksum) {
+					break;
+				}
+				payload.rewind();
+				long lsn = payload.getLong();
+				if (lsn > snapshotLsn) {
+					if (lsn != lastLsn + 1) {
+						break;
+					}
+					apply(payload, lsn);
+					lastLsn = lsn;
+				}
+				in.position(in.position() + RECORD_HEADER_SIZE + length);
+				position += RECORD_HEADER_SIZE + length;
+			}
+
+			long size = channel.size();
+			if (position < size) {
+				System.out.println("Write-ahead log " + path.getFileName() + " ends with an incomplete record, "
+						+ (size - position) + " bytes cut off.");
+				channel.truncate(position);
+				channel.force(true);
+				return false;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Method to read from the channel until the buffer holds at least the
+	 * given number of bytes, which have to fit in it.
+	 * @return = false if the file ends first.
+	 */
+	private static boolean fill(FileChannel channel, ByteBuffer in, int bytes) throws IOException {
+		while (in.remaining() < bytes) {
+			in.compact();
+			int read = channel.read(in);
+			in.flip();
+			if (read < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void apply(ByteBuffer payload, long lsn) throws IOException {
+		try {
+			byte type = payload.get();
+			if (type == POLL_ADDED) {
+				Poll poll = new Poll(getString(payload), payload.getInt());
+				poll.setSampleSize(payload.getInt());
+				long fieldedDay = payload.getLong();
+				if (fieldedDay != PollListSnapshot.NO_FIELDED_DATE) {
+					poll.setFieldedDate(LocalDate.ofEpochDay(fieldedDay));
+				}
+				int numOfParties = payload.getInt();
+				for (int count = 0; count < numOfParties; count++) {
+					poll.addParty(getParty(payload));
+				}
+				list.addPoll(poll);
+			}
+			else if (type == PARTY_ADDED) {
+				int pollIndex = payload.getInt();
+				Party party = getParty(payload);
+				if (pollIndex < 0 || pollIndex >= list.getNumOfPolls()) {
+					throw new IOException("Write-ahead log record " + lsn + " refers to a missing poll");
+				}
+				list.pollAt(pollIndex).addParty(party);
+			}
+			else if (type == PARTY_RENAMED) {
+				int pollIndex = payload.getInt();
+				String oldName = getString(payload);
+				Party party = getParty(payload);
+				if (pollIndex < 0 || pollIndex >= list.getNumOfPolls()) {
+					throw new IOException("Write-ahead log record " + lsn + " refers to a missing poll");
+				}
+				Poll poll = list.pollAt(pollIndex);
+				Party renamed = null;
+				for (Party inPoll : poll.getParties()) {
+					if (inPoll != null && Poll.partyKey(inPoll.getName()).equals(Poll.partyKey(oldName))) {
+						renamed = inPoll;
+					}
+				}
+				if (renamed == null) { // renamed already in the snapshot
+					poll.addParty(party);
+				}
+				else {
+					renamed.setName(party.getName());
+					renamed.setProjectedNumberOfSeats(party.getProjectedNumberOfSeats());
+					renamed.setProjectedPercentageOfVotes(party.getProjectedPercentageOfVotes());
+				}
+			}
+			else {
+				throw new IOException("Write-ahead log record " + lsn + " has unknown type " + type);
+			}
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Write-ahead log record " + lsn + " is corrupt", e);
+		}
+	}
+
+	// snapshots hold no colours, so parties are copied without theirs
+	private static Poll copyOf(Poll poll) {
+		Party[] parties = poll.getParties();
+		Poll copy = new Poll(poll.getPollName(), parties.length);
+		copy.setSampleSize(poll.getSampleSize());
+		copy.setFieldedDate(poll.getFieldedDate());
+		// parties are copied in the order they were added, the poll fills its array from the end
+		for (int slot = parties.length - 1; slot >= 0; slot--) {
+			if (parties[slot] != null) {
+				copy.addParty(new Party(parties[slot].getName(), parties[slot].getProjectedNumberOfSeats(),
+						parties[slot].getProjectedPercentageOfVotes()));
+			}
+		}
+		return copy;
+	}
+
+	private static Party getParty(ByteBuffer payload) {
+		String name = getString(payload);
+		float seats = payload.getFloat();
+		float percentage = payload.getFloat();
+		return new Party(name, seats, percentage);
+	}
+
+	private static String getString(ByteBuffer payload) {
+		byte[] bytes = new byte[payload.getInt()];
+		payload.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static byte[] encode(String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private FileChannel openSegment(long firstLsn) throws IOException {
+		// a file with this name can only be left empty by the last run
+		FileChannel channel = FileChannel.open(segmentPath(firstLsn), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		forceDirectory();
+		return channel;
+	}
+
+	/**
+	 * Method to make new and renamed files in the directory survive a crash.
+	 * Not every platform can open a directory, those make it durable themselves.
+	 */
+	private void forceDirectory() {
+		try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException e) {
+			// not supported here
+		}
+	}
+
+	private Path segmentPath(long firstLsn) {
+		return directory.resolve(SEGMENT_PREFIX + firstLsn + SEGMENT_SUFFIX);
+	}
+
+	private Path snapshotPath(long lsn) {
+		return directory.resolve(SNAPSHOT_PREFIX + lsn + SNAPSHOT_SUFFIX);
+	}
+
+	/**
+	 * Method to obtain the LSNs in the names of the files with the given
+	 * prefix and suffix, in ascending order.
+	 */
+	private long[] fileLsns(String prefix, String suffix) throws IOException {
+		long[] lsns = new long[16];
+		int count = 0;
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				try {
+					long lsn = Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+					if (count == lsns.length) {
+						lsns = Arrays.copyOf(lsns, count * 2);
+					}
+					lsns[count++] = lsn;
+				} catch (NumberFormatException e) {
+					continue; // not a file of the log
+				}
+			}
+		}
+		lsns = Arrays.copyOf(lsns, count);
+		Arrays.sort(lsns);
+		return lsns;
+	}
+
+	/**
+	 * Listener that logs the parties added to or changed in a poll of the list.
+	 */
+	private class PartyLogger implements PollChangeListener {
+		private final Poll poll;
+		private final int pollIndex;
+
+		PartyLogger(Poll poll, int pollIndex) {
+			this.poll = poll;
+			this.pollIndex = pollIndex;
+		}
+
+		public void partyChanged(Poll changed, Party oldParty, Party newParty) {
+			// a party taken out by a rename is taken out again when the rename is replayed
+			if (newParty != null) {
+				logParty(pollIndex, oldParty, newParty);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,158 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of the text visualizations of polls. A visualization is kept for
+ * each poll, type, number of stars and value per star, together with the
+ * version of the poll it was drawn from (see Poll.getVersion), and is drawn
+ * again only once the poll has changed. When the cache is full the
+ * visualization used least recently is dropped.
+ */
+public class RenderCache {
+
+	public static final int DEFAULT_CAPACITY = 10000;
+
+	private int capacity;
+	private long hits;
+	private long misses;
+	private LinkedHashMap<Key, Rendering> renderings;
+
+	/**
+	 * Constructor for RenderCache class that holds DEFAULT_CAPACITY visualizations.
+	 */
+	public RenderCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor for RenderCache class.
+	 * @param capacity = number of visualizations to keep, at least 1.
+	 */
+	public RenderCache(int capacity) {
+		this.capacity = Math.max(capacity, 1);
+		// access order, so the eldest entry is the one used least recently
+		renderings = new LinkedHashMap<Key, Rendering>(16, 0.75f, true) {
+			protected boolean removeEldestEntry(Map.Entry<Key, Rendering> eldest) {
+				return size() > RenderCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * Method to obtain the visualization of a poll by seats, the same as
+	 * Poll.textVisualizationBySeats.
+	 * @param poll = poll to draw.
+	 * @param maxStars = most stars a party can get.
+	 * @param numOfSeatsPerStar = number of seats per star.
+	 * @return = visualization of the poll.
+	 */
+	public String textVisualizationBySeats(Poll poll, int maxStars, double numOfSeatsPerStar) {
+		return render(poll, false, maxStars, numOfSeatsPerStar);
+	}
+
+	/**
+	 * Method to obtain the visualization of a poll by votes, the same as
+	 * Poll.textVisualizationByVotes.
+	 * @param poll = poll to draw.
+	 * @param maxStars = most stars a party can get.
+	 * @param percentOfVotesPerStar = percentage of votes per star.
+	 * @return = visualization of the poll.
+	 */
+	public String textVisualizationByVotes(Poll poll, int maxStars, double percentOfVotesPerStar) {
+		return render(poll, true, maxStars, percentOfVotesPerStar);
+	}
+
+	/**
+	 * Getter methods that return how many visualizations were found in the
+	 * cache and how many had to be drawn.
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Method to drop every visualization in the cache.
+	 */
+	public synchronized void clear() {
+		renderings.clear();
+	}
+
+	// PRIVATE METHODS
+	private synchronized String render(Poll poll, boolean byVotes, int maxStars, double perStar) {
+		long version = poll.getVersion();
+		Key key = new Key(poll, byVotes, maxStars, perStar);
+		Rendering rendering = renderings.get(key);
+		if (rendering != null && rendering.version == version) {
+			hits++;
+			return rendering.text;
+		}
+		misses++;
+		StringBuilder text = new StringBuilder();
+		try {
+			if (byVotes) {
+				poll.textVisualizationByVotes(text, maxStars, perStar);
+			}
+			else {
+				poll.textVisualizationBySeats(text, maxStars, perStar);
+			}
+		} catch (IOException e) { // a StringBuilder never throws
+			throw new UncheckedIOException(e);
+		}
+		rendering = new Rendering(version, text.toString());
+		renderings.put(key, rendering);
+		return rendering.text;
+	}
+
+	/**
+	 * What was drawn: the poll itself, not an equal one, and how.
+	 */
+	private static class Key {
+		private final Poll poll;
+		private final boolean byVotes;
+		private final int maxStars;
+		private final double perStar;
+
+		Key(Poll poll, boolean byVotes, int maxStars, double perStar) {
+			this.poll = poll;
+			this.byVotes = byVotes;
+			this.maxStars = maxStars;
+			this.perStar = perStar;
+		}
+
+		public boolean equals(Object other) {
+			if (!(other instanceof Key)) {
+				return false;
+			}
+			Key key = (Key) other;
+			return poll == key.poll && byVotes == key.byVotes && maxStars == key.maxStars
+					&& Double.compare(perStar, key.perStar) == 0;
+		}
+
+		public int hashCode() {
+			int hash = System.identityHashCode(poll);
+			hash = 31 * hash + (byVotes ? 1 : 0);
+			hash = 31 * hash + maxStars;
+			return 31 * hash + Double.hashCode(perStar);
+		}
+	}
+
+	/**
+	 * Visualization and the version of the poll it was drawn from.
+	 */
+	private static class Rendering {
+		private final long version;
+		private final String text;
+
+		Rendering(long version, String text) {
+			this.version = version;
+			this.text = text;
+		}
+	}
+
+}
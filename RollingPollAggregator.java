@@ -0,0 +1,276 @@
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.stream.Stream;
+
+/**
+ * Class that keeps the average seats and percentage of votes of parties over
+ * a sliding window of a time-ordered stream of polls, such as the last N
+ * polls or the polls of the last 14 days.
+ * <p>
+ * The contribution of every poll in the window is copied into a ring buffer
+ * of primitive arrays when the poll is added. Adding a poll adds its
+ * contribution to running sums and subtracts the contributions of the polls
+ * that leave the window, so each step costs a number of operations
+ * proportional to the parties of the polls involved, however large the
+ * window is. Later changes to a poll do not affect the window.
+ */
+public class RollingPollAggregator {
+
+	private int maxPolls;
+	private int maxDays;
+
+	// ring buffer of the contributions of the polls in the window
+	private int[][] slotParties = new int[8][];
+	private float[][] slotSeats = new float[8][];
+	private float[][] slotPercentages = new float[8][];
+	private int[] slotSize = new int[8];
+	private long[] slotDay = new long[8];
+	private int first;
+	private int windowSize;
+	// epoch day of the latest dated poll, used for polls without a date
+	private long latestDay = Long.MIN_VALUE;
+
+	// running sums, one position per party
+	private String[] names = new String[8];
+	private int numOfParties;
+	// maps lower case party names to their position in the sums
+	private HashMap<String, Integer> nameIndex = new HashMap<String, Integer>();
+	private double[] totalSeats = new double[8];
+	private double[] totalPercentages = new double[8];
+	private int[] numOfPolls = new int[8];
+
+	/**
+	 * Constructor for RollingPollAggregator class. A poll leaves the window
+	 * once either limit is passed.
+	 * @param maxPolls = number of most recent polls in the window, 0 for no limit.
+	 * @param maxDays = number of days, up to the date of the latest poll, in the window, 0 for no limit.
+	 */
+	public RollingPollAggregator(int maxPolls, int maxDays) {
+		if (maxPolls < 0 || maxDays < 0) {
+			System.out.println("Window limits cannot be negative. The window will not be limited.");
+		}
+		this.maxPolls = Math.max(maxPolls, 0);
+		this.maxDays = Math.max(maxDays, 0);
+	}
+
+	/**
+	 * Getter methods that return the limits of the window and the number of polls in it.
+	 */
+	public int getMaxPolls() {
+		return maxPolls;
+	}
+
+	public int getMaxDays() {
+		return maxDays;
+	}
+
+	public int getWindowSize() {
+		return windowSize;
+	}
+
+	/**
+	 * Method to move the window forward by one poll. Polls are expected in
+	 * the order they were fielded; a poll without a fielded date is taken
+	 * to be fielded on the date of the latest dated poll, or of the first
+	 * dated poll if it comes before any.
+	 * @param pollToAdd = poll entering the window, null is ignored.
+	 */
+	public void addPoll(Poll pollToAdd) {
+		if (pollToAdd == null) {
+			return;
+		}
+		LocalDate date = pollToAdd.getFieldedDate();
+		if (date != null) {
+			if (latestDay == Long.MIN_VALUE) {
+				// the undated polls so far get the date of the first dated poll
+				for (int offset = 0; offset < windowSize; offset++) {
+					slotDay[(first + offset) % slotSize.length] = date.toEpochDay();
+				}
+			}
+			latestDay = Math.max(latestDay, date.toEpochDay());
+		}
+
+		// copy the contribution of the poll into the next slot
+		if (windowSize == slotSize.length) {
+			growSlots();
+		}
+		int slot = (first + windowSize) % slotSize.length;
+		Party[] parties = pollToAdd.getParties();
+		if (slotParties[slot] == null || slotParties[slot].length < parties.length) {
+			slotParties[slot] = new int[parties.length];
+			slotSeats[slot] = new float[parties.length];
+			slotPercentages[slot] = new float[parties.length];
+		}
+		int size = 0;
+		for (Party currentParty : parties) {
+			if (currentParty == null) {
+				continue;
+			}
+			int index = indexOf(currentParty.getName(), true);
+			float seats = currentParty.getProjectedNumberOfSeats();
+			float percentage = currentParty.getProjectedPercentageOfVotes();
+			slotParties[slot][size] = index;
+			slotSeats[slot][size] = seats;
+			slotPercentages[slot][size] = percentage;
+			size++;
+			totalSeats[index] += seats;
+			totalPercentages[index] += percentage;
+			numOfPolls[index]++;
+		}
+		slotSize[slot] = size;
+		slotDay[slot] = (date != null) ? date.toEpochDay() : latestDay;
+		windowSize++;
+
+		// drop the polls that left the window
+		while (windowSize > 0 && isOutsideWindow(first)) {
+			removeFirst();
+		}
+	}
+
+	/**
+	 * Method to obtain the expected number of seats and percentage of votes
+	 * for a party over the polls in the window.
+	 * @param name = name of party to get expected results for.
+	 * @return = instance of Party with expected seats and percentage.
+	 */
+	public Party getAveragePartyData(String name) {
+		Party newParty = new Party(name);
+		int index = indexOf(name, false);
+
+		if (index >= 0 && numOfPolls[index] != 0) {
+			newParty.setProjectedNumberOfSeats((float) (totalSeats[index] / numOfPolls[index]));
+			newParty.setProjectedPercentageOfVotes((float) (totalPercentages[index] / numOfPolls[index]));
+		}
+		else {
+			newParty.setProjectedNumberOfSeats(0f);
+			newParty.setProjectedPercentageOfVotes(0f);
+		}
+		return newParty;
+	}
+
+	/**
+	 * Method to obtain the names of the parties in the polls of the window.
+	 * @return = party names, spelled as they were first seen.
+	 */
+	public String[] getPartyNames() {
+		int count = 0;
+		String[] partyNames = new String[numOfParties];
+		for (int index = 0; index < numOfParties; index++) {
+			if (numOfPolls[index] > 0) {
+				partyNames[count++] = names[index];
+			}
+		}
+		return Arrays.copyOf(partyNames, count);
+	}
+
+	/**
+	 * Method to obtain a poll that represents the aggregate of the polls in
+	 * the window. Its fielded date is the date of the latest dated poll.
+	 * @param partyNames = names of parties to include in the aggregate poll.
+	 * @return = aggregate poll with desired parties.
+	 */
+	public Poll getAggregatePoll(String[] partyNames) {
+		Poll aggregatePoll = new Poll("Rolling Aggregate", partyNames.length);
+		if (latestDay != Long.MIN_VALUE) {
+			aggregatePoll.setFieldedDate(LocalDate.ofEpochDay(latestDay));
+		}
+		for (String party : partyNames) {
+			aggregatePoll.addParty(getAveragePartyData(party));
+		}
+		return aggregatePoll;
+	}
+
+	/**
+	 * Method to obtain the aggregate poll of every window step over a stream
+	 * of polls. Each poll is added to the window when the stream reaches it,
+	 * so the stream is lazy and always sequential.
+	 * @param polls = time-ordered polls to move the window over.
+	 * @param partyNames = names of parties to include in the aggregate polls,
+	 * null for the parties in the window at each step.
+	 * @return = stream of one aggregate poll per poll added.
+	 */
+	public Stream<Poll> aggregates(Stream<Poll> polls, String[] partyNames) {
+		return polls.sequential().map(poll -> {
+			addPoll(poll);
+			return getAggregatePoll((partyNames != null) ? partyNames : getPartyNames());
+		});
+	}
+
+	// PRIVATE METHODS
+	private boolean isOutsideWindow(int slot) {
+		if (maxPolls > 0 && windowSize > maxPolls) {
+			return true;
+		}
+		// every slot has a day once latestDay is set
+		return maxDays > 0 && latestDay != Long.MIN_VALUE && slotDay[slot] <= latestDay - maxDays;
+	}
+
+	private void removeFirst() {
+		int[] parties = slotParties[first];
+		for (int position = 0; position < slotSize[first]; position++) {
+			int index = parties[position];
+			numOfPolls[index]--;
+			if (numOfPolls[index] == 0) {
+				// avoid leaving rounding errors behind
+				totalSeats[index] = 0;
+				totalPercentages[index] = 0;
+			}
+			else {
+				totalSeats[index] -= slotSeats[first][position];
+				totalPercentages[index] -= slotPercentages[first][position];
+			}
+		}
+		first = (first + 1) % slotSize.length;
+		windowSize--;
+	}
+
+	private void growSlots() {
+		int length = slotSize.length;
+		int newLength = length * 2;
+		// unroll the ring so the window starts at the first slot again
+		slotParties = unroll(slotParties, new int[newLength][], length);
+		slotSeats = unroll(slotSeats, new float[newLength][], length);
+		slotPercentages = unroll(slotPercentages, new float[newLength][], length);
+		int[] newSize = new int[newLength];
+		long[] newDay = new long[newLength];
+		for (int offset = 0; offset < length; offset++) {
+			newSize[offset] = slotSize[(first + offset) % length];
+			newDay[offset] = slotDay[(first + offset) % length];
+		}
+		slotSize = newSize;
+		slotDay = newDay;
+		first = 0;
+	}
+
+	private <T> T[] unroll(T[] ring, T[] newRing, int length) {
+		for (int offset = 0; offset < length; offset++) {
+			newRing[offset] = ring[(first + offset) % length];
+		}
+		return newRing;
+	}
+
+	private int indexOf(String name, boolean create) {
+		String key = Poll.partyKey(name);
+		Integer index = nameIndex.get(key);
+		if (index != null) {
+			return index;
+		}
+		if (!create) {
+			return -1;
+		}
+
+		// grow sums if they are full
+		if (numOfParties == names.length) {
+			int newLength = names.length * 2;
+			names = Arrays.copyOf(names, newLength);
+			totalSeats = Arrays.copyOf(totalSeats, newLength);
+			totalPercentages = Arrays.copyOf(totalPercentages, newLength);
+			numOfPolls = Arrays.copyOf(numOfPolls, newLength);
+		}
+		names[numOfParties] = name;
+		nameIndex.put(key, numOfParties);
+		return numOfParties++;
+	}
+
+}
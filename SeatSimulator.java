@@ -0,0 +1,197 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Monte Carlo simulator of election outcomes around an aggregate poll.
+ * <p>
+ * Every simulated outcome moves the vote share of each party by a random
+ * amount of at most the swing, in the same way Factory.createRandomParty keeps
+ * the vote share within 5 percentage points of the seat share. The seats of
+ * each party are scaled by how much its vote share moved, and the seats of
+ * the election are then handed out in proportion to the scaled seats by the
+ * largest remainder method.
+ * <p>
+ * Outcomes are simulated on all cores. The iterations are split into ranges
+ * that each draw from their own random number generator, split from the one
+ * of the range they came from, so the same seed always gives the same result.
+ */
+public class SeatSimulator {
+
+	public static final double DEFAULT_SWING = 0.05;
+	// ranges with at most this many iterations are simulated sequentially
+	private static final int ITERATIONS_PER_TASK = 16384;
+
+	private String[] names;
+	private int numOfSeats;
+	private double swing;
+	private double[] votes;
+	private double[] seatsPerVote;
+
+	/**
+	 * Constructor for SeatSimulator class that uses DEFAULT_SWING.
+	 * @param aggregate = poll to simulate outcomes around, usually an aggregate poll.
+	 * @param numOfSeats = number of seats in the election.
+	 */
+	public SeatSimulator(Poll aggregate, int numOfSeats) {
+		this(aggregate, numOfSeats, DEFAULT_SWING);
+	}
+
+	/**
+	 * Constructor for SeatSimulator class.
+	 * @param aggregate = poll to simulate outcomes around, usually an aggregate poll.
+	 * @param numOfSeats = number of seats in the election.
+	 * @param swing = largest change of the vote share of a party, 0.05 for 5 percentage points.
+	 */
+	public SeatSimulator(Poll aggregate, int numOfSeats, double swing) {
+		if (swing < 0) {
+			System.out.println("Swing cannot be negative. The default swing will be used.");
+			swing = DEFAULT_SWING;
+		}
+		this.numOfSeats = Math.max(numOfSeats, 1);
+		this.swing = swing;
+
+		// copy the parties into primitive arrays, in the order they were added
+		Party[] parties = aggregate.getParties();
+		int numOfParties = 0;
+		for (Party party : parties) {
+			if (party != null) {
+				numOfParties++;
+			}
+		}
+		names = new String[numOfParties];
+		votes = new double[numOfParties];
+		seatsPerVote = new double[numOfParties];
+		int index = numOfParties;
+		for (Party party : parties) {
+			if (party != null) {
+				index--;
+				names[index] = party.getName();
+				votes[index] = party.getProjectedPercentageOfVotes();
+				// a party without votes gets no seats however its share moves
+				seatsPerVote[index] = (votes[index] > 0)
+						? party.getProjectedNumberOfSeats() / votes[index] : 0;
+			}
+		}
+	}
+
+	/**
+	 * Method to simulate outcomes on all cores.
+	 * @param iterations = number of outcomes to simulate.
+	 * @param seed = seed for the random numbers.
+	 * @return = probabilities and seat distributions of the parties.
+	 */
+	public SimulationResult simulate(int iterations, long seed) {
+		return simulate(iterations, seed, true);
+	}
+
+	/**
+	 * Method to simulate outcomes. Simulating in parallel does not change the result.
+	 * @param iterations = number of outcomes to simulate.
+	 * @param seed = seed for the random numbers.
+	 * @param parallel = whether to simulate on all cores.
+	 * @return = probabilities and seat distributions of the parties.
+	 */
+	public SimulationResult simulate(int iterations, long seed, boolean parallel) {
+		Simulation simulation = new Simulation(Math.max(0, iterations), new SplittableRandom(seed));
+		if (parallel) {
+			return ForkJoinPool.commonPool().invoke(simulation);
+		}
+		return simulation.compute();
+	}
+
+	/**
+	 * Method to simulate one range of outcomes on the current thread. All
+	 * scratch arrays are allocated once per range.
+	 */
+	private SimulationResult simulateRange(int iterations, SplittableRandom rand) {
+		SimulationResult result = new SimulationResult(names, numOfSeats);
+		int numOfParties = names.length;
+		double[] weights = new double[numOfParties];
+		double[] remainders = new double[numOfParties];
+		int[] seats = new int[numOfParties];
+
+		for (int iteration = 0; iteration < iterations; iteration++) {
+			// move every vote share and scale the seats with it
+			double totalWeight = 0;
+			for (int index = 0; index < numOfParties; index++) {
+				double share = Math.max(0, votes[index] + swing * (2 * rand.nextDouble() - 1));
+				weights[index] = share * seatsPerVote[index];
+				totalWeight += weights[index];
+			}
+
+			// largest remainder: whole quotas first, then the largest remainders
+			int seatsLeft = numOfSeats;
+			for (int index = 0; index < numOfParties; index++) {
+				double quota = (totalWeight > 0) ? weights[index] * numOfSeats / totalWeight : 0;
+				seats[index] = (int) quota;
+				remainders[index] = quota - seats[index];
+				seatsLeft -= seats[index];
+			}
+			while (seatsLeft > 0 && numOfParties > 0) {
+				int best = 0;
+				for (int index = 1; index < numOfParties; index++) {
+					if (remainders[index] > remainders[best]) {
+						best = index;
+					}
+				}
+				seats[best]++;
+				remainders[best] = -1;
+				seatsLeft--;
+			}
+
+			// find the party with strictly the most seats
+			int largestParty = -1;
+			int mostSeats = -1;
+			for (int index = 0; index < numOfParties; index++) {
+				if (seats[index] > mostSeats) {
+					mostSeats = seats[index];
+					largestParty = index;
+				}
+				else if (seats[index] == mostSeats) {
+					largestParty = -1;
+				}
+			}
+			result.record(seats, largestParty);
+		}
+		return result;
+	}
+
+	/**
+	 * Task that simulates a range of outcomes.
+	 */
+	private class Simulation extends RecursiveTask<SimulationResult> {
+		private static final long serialVersionUID = 1L;
+		private int iterations;
+		private SplittableRandom rand;
+
+		Simulation(int iterations, SplittableRandom rand) {
+			this.iterations = iterations;
+			this.rand = rand;
+		}
+
+		@Override
+		protected SimulationResult compute() {
+			if (iterations <= ITERATIONS_PER_TASK) {
+				return simulateRange(iterations, rand);
+			}
+
+			// the first half always gets the split generator, so the result does not depend on scheduling
+			int half = iterations >>> 1;
+			Simulation firstHalf = new Simulation(half, rand.split());
+			Simulation secondHalf = new Simulation(iterations - half, rand);
+			SimulationResult result;
+			if (getPool() != null) {
+				firstHalf.fork();
+				result = secondHalf.compute();
+				result.merge(firstHalf.join());
+			}
+			else {
+				result = firstHalf.compute();
+				result.merge(secondHalf.compute());
+			}
+			return result;
+		}
+	}
+
+}
@@ -0,0 +1,176 @@
+/**
+ * Outcome of a SeatSimulator run: for every party, how often it won a
+ * majority of the seats, how often it won the most seats and how often it
+ * won each possible number of seats.
+ */
+public class SimulationResult {
+
+	private String[] names;
+	private int numOfSeats;
+	private long iterations;
+	private long[] majorities;
+	private long[] largest;
+	// seatCounts[party][seats] = number of outcomes with that many seats
+	private long[][] seatCounts;
+
+	SimulationResult(String[] names, int numOfSeats) {
+		this.names = names;
+		this.numOfSeats = numOfSeats;
+		majorities = new long[names.length];
+		largest = new long[names.length];
+		seatCounts = new long[names.length][numOfSeats + 1];
+	}
+
+	/**
+	 * Getter methods that return the simulated parties, the number of seats
+	 * and the number of outcomes simulated.
+	 */
+	public String[] getPartyNames() {
+		return names.clone();
+	}
+
+	public int getNumOfSeats() {
+		return numOfSeats;
+	}
+
+	public long getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Method to obtain the probability that a party wins more than half of the seats.
+	 * @param name = name of the party.
+	 * @return = probability between 0 and 1, 0 for an unknown party.
+	 */
+	public double getMajorityProbability(String name) {
+		int index = indexOf(name);
+		return (index < 0 || iterations == 0) ? 0 : (double) majorities[index] / iterations;
+	}
+
+	/**
+	 * Method to obtain the probability that a party wins more seats than any
+	 * other party. Outcomes where the most seats are tied count for no party.
+	 * @param name = name of the party.
+	 * @return = probability between 0 and 1, 0 for an unknown party.
+	 */
+	public double getLargestPartyProbability(String name) {
+		int index = indexOf(name);
+		return (index < 0 || iterations == 0) ? 0 : (double) largest[index] / iterations;
+	}
+
+	/**
+	 * Method to obtain the distribution of the seats a party wins.
+	 * @param name = name of the party.
+	 * @return = probability of winning each number of seats, indexed by seats,
+	 * null for an unknown party.
+	 */
+	public double[] getSeatDistribution(String name) {
+		int index = indexOf(name);
+		if (index < 0) {
+			return null;
+		}
+		double[] distribution = new double[numOfSeats + 1];
+		for (int seats = 0; seats <= numOfSeats && iterations > 0; seats++) {
+			distribution[seats] = (double) seatCounts[index][seats] / iterations;
+		}
+		return distribution;
+	}
+
+	/**
+	 * Method to obtain the average number of seats a party wins.
+	 * @param name = name of the party.
+	 * @return = expected seats, 0 for an unknown party.
+	 */
+	public double getMeanSeats(String name) {
+		int index = indexOf(name);
+		if (index < 0 || iterations == 0) {
+			return 0;
+		}
+		double total = 0;
+		for (int seats = 0; seats <= numOfSeats; seats++) {
+			total += (double) seats * seatCounts[index][seats];
+		}
+		return total / iterations;
+	}
+
+	/**
+	 * Method to obtain the number of seats a party wins in at most the given
+	 * share of outcomes, for example 0.05 and 0.95 for a 90% interval.
+	 * @param name = name of the party.
+	 * @param quantile = share of outcomes between 0 and 1.
+	 * @return = smallest number of seats with at least that share of outcomes
+	 * at or below it, -1 for an unknown party.
+	 */
+	public int getSeatQuantile(String name, double quantile) {
+		int index = indexOf(name);
+		if (index < 0) {
+			return -1;
+		}
+		long cumulative = 0;
+		for (int seats = 0; seats <= numOfSeats; seats++) {
+			cumulative += seatCounts[index][seats];
+			if (cumulative >= quantile * iterations) {
+				return seats;
+			}
+		}
+		return numOfSeats;
+	}
+
+	/**
+	 * Method to obtain a summary of the simulation, one party per line.
+	 * @return = text summary of the simulation.
+	 */
+	public String toString() {
+		StringBuilder summary = new StringBuilder();
+		summary.append(iterations).append(" simulated outcomes for ").append(numOfSeats).append(" seats");
+		for (String name : names) {
+			summary.append('\n').append(name)
+					.append(": majority ").append(percentage(getMajorityProbability(name)))
+					.append(", largest ").append(percentage(getLargestPartyProbability(name)))
+					.append(", seats ").append(getSeatQuantile(name, 0.05))
+					.append('-').append(getSeatQuantile(name, 0.95))
+					.append(" (mean ").append(Math.round(getMeanSeats(name) * 10) / 10.0).append(')');
+		}
+		return summary.toString();
+	}
+
+	// METHODS USED BY SeatSimulator
+	void record(int[] seats, int largestParty) {
+		iterations++;
+		for (int index = 0; index < seats.length; index++) {
+			seatCounts[index][seats[index]]++;
+			if (2 * seats[index] > numOfSeats) {
+				majorities[index]++;
+			}
+		}
+		if (largestParty >= 0) {
+			largest[largestParty]++;
+		}
+	}
+
+	void merge(SimulationResult other) {
+		iterations += other.iterations;
+		for (int index = 0; index < names.length; index++) {
+			majorities[index] += other.majorities[index];
+			largest[index] += other.largest[index];
+			for (int seats = 0; seats <= numOfSeats; seats++) {
+				seatCounts[index][seats] += other.seatCounts[index][seats];
+			}
+		}
+	}
+
+	// PRIVATE METHODS
+	private int indexOf(String name) {
+		for (int index = 0; index < names.length; index++) {
+			if (names[index].equalsIgnoreCase(name)) {
+				return index;
+			}
+		}
+		return -1;
+	}
+
+	private static String percentage(double probability) {
+		return Math.round(probability * 1000) / 10.0 + "%";
+	}
+
+}
@@ -1,247 +1,456 @@
-import java.util.Scanner; 
-
-/** 
- * This class utilizes the Party, Poll, PollList,
- * and Factory classes to collect data related to 
- * parties and polls, then displays a visualization 
- * of the information; alternatively, it also 
- * generates a random set of data to visualize.
- * 
- * @author Mackenzie Breithaupt
- * @author Fedor Prokopchuk
- * @author Ray Zegrer
- * 
- */
-public class TextApplication {
-	
-	//INSTANCE VARIABLES
-	private PollList polls;
-	private String visualizationType = ""; // By seats, or by votes
-	private String visualizationOption = ""; // All results, or Aggregate of the results
-	private String[] partyList;
-	
-	//PUBLIC METHODS
-	/**
-	 * This method takes a poll as a parameter and prints
-	 * the visualization by seats method from the Party Class
-	 * @param pollToPrint Poll to be visualized
-	 */
-	public void displayPollDataBySeat(Poll pollToPrint) {
-		System.out.println(pollToPrint.textVisualizationBySeats(
-				PollList.MAX_STARS_FOR_VISUALIZATION, polls.seatsPerStar()));
-	}
-	
-	/**
-	 * This method takes a list of polls and prints the 
-	 * visualization by seats using the method from Party and 
-	 * the aggregated data 
-	 * @param pollInfo List of poll names
-	 */
-	public void displayPollsBySeat(String[] pollInfo) {
-		System.out.println(polls.textVisualizationBySeats());
-		System.out.println(displayAggregatePoll(pollInfo));
-	}
-	
-	/**
-	 * This method returns the aggregated visualization of
-	 * the list of polls provided as the argument
-	 * @param pollNames List of poll names
-	 * @return Aggregated visualization of the polls provided 
-	 * as a string
-	 */
-	public String displayAggregatePoll(String[] pollNames) {
-		Poll aggPoll = polls.getAggregatePoll(pollNames);
-		return aggPoll.textVisualizationBySeats(PollList.MAX_STARS_FOR_VISUALIZATION,
-				polls.seatsPerStar());
-	}
-	
-	/**
-	 * This method takes a poll as a parameter and prints
-	 * the visualization by votes using the method from Party
-	 * @param pollToPrint Poll that will be visualized
-	 */
-	public void displayPollDataByVote(Poll pollToPrint) {
-		System.out.println(pollToPrint.textVisualizationByVotes(PollList.MAX_STARS_FOR_VISUALIZATION, 
-				100 / PollList.MAX_STARS_FOR_VISUALIZATION + 1));
-	}
-	
-	/**
-	 * This method takes a list of poll names as the parameter
-	 * and visualizes the polls by votes as well as the aggregated
-	 * visual
-	 * @param pollInfo List of poll names
-	 */
-	public void displayPollsByVote(String[] pollInfo) {
-		System.out.println(polls.textVisualizationByVotes());
-		System.out.println(displayAggregatePoll(pollInfo));
-	}
-	
-	/**
-	 * This method runs the textApplication program, 
-	 * it takes no parameters and doesn't return anything
-	 */
-	public void run() {
-		setUpPollTracker(); // Initial setup for tracking
-		while (!visualizationOption.equals("quit")) {
-			getVisualizationType(); // set visualization type
-			getVisualizationOption(); // set visualization option
-			displayResult(); // output visualization
-		}
-	}
-	
-	//PRIVATE METHODS
-	/**
-	 * This method is used to prompt the user for the
-	 * data used to set up the poll tracker
-	 * Takes no arguments and returns nothing
-	 */
-	private void setUpPollTracker() {
-		//VARIABLES
-		Scanner keyInput = new Scanner(System.in); //Closing scanner throws "no line found" exception
-		int numSeats, numOfPolls;
-		String parties;
-		
-		//TEXT AND USER INPUT
-		System.out.println("Welcome to the poll tracker \n"
-				+ "How many seats are available in this election?");
-		numSeats = keyInput.nextInt(); // get number of seats
-		keyInput.nextLine();
-		Factory randomFactory = new Factory(numSeats);
-		
-		System.out.println("What are the parties participating in this election? "
-				+ "(provide names separated by commas)");
-		parties = keyInput.nextLine(); // get string list of party names
-		partyList = parties.split(",");
-		randomFactory.setPartyNames(partyList);
-		
-		System.out.println("How many polls would you like to track?");
-		numOfPolls = keyInput.nextInt(); // get number of polls to track
-		keyInput.nextLine();
-		
-		System.out.println("Would you like me to generate a set of random polls? (yes/no)");
-		if (keyInput.nextLine().equals("yes")) {
-			polls = randomFactory.createRandomPollList(numOfPolls); // create random polls
-		} 
-		else {
-			polls = promptForPollList(numOfPolls, numSeats, partyList); // get user defined poll information
-		}
-			 
-	}
-	
-	/**
-	 * This method is used to gather data from the user
-	 * when they choose to not use random generated data.
-	 * 
-	 * @param numOfPolls Takes the number of polls to be 
-	 * made as an integer
-	 * @param numOfSeats Takes the number of seats in the 
-	 * election as an integer
-	 * @param parties Takes a list of party names as a list 
-	 * of Strings
-	 * @return a PollList of the polls entered by the user
-	 */
-	private PollList promptForPollList(int numOfPolls, int numOfSeats, String[] parties) {
-		PollList listOfPolls = new PollList(numOfPolls, numOfSeats);
-		Scanner keyInput = new Scanner(System.in); //Closing scanner throws "no line found" exception
-		for (int i = 0; i < numOfPolls; i++) {
-			// prompt user for info for each poll, starting with poll name 
-			System.out.println("Name of poll: ");
-			String pollName = keyInput.nextLine();
-			// initialize poll
-			Poll newPoll = new Poll(pollName, parties.length);
-			
-			// add parties to poll
-			for (String party : parties) {
-				// prompt for expected number of seats
-				System.out.println("Expected number of seats for " + party + ": ");
-				float expectedSeats = keyInput.nextFloat();
-				keyInput.nextLine();
-				// prompt for expected percentage of votes
-				System.out.println("Expected percentage of the vote for " + party + ": (enter as a decimal)");
-				float expectedVote = keyInput.nextFloat();
-				keyInput.nextLine();
-				// make new party and add to poll newPoll
-				Party newParty = new Party(party, expectedSeats, expectedVote);
-				newPoll.addParty(newParty);
-			}
-			listOfPolls.addPoll(newPoll);
-		}
-		 
-		return listOfPolls;
-	}
-	
-	/**
-	 * This method prompts the user for the type of 
-	 * visualization, either by seats or votes.
-	 * Takes no arguments and doesn't return anything
-	 */
-	private void getVisualizationType() {
-		Scanner keyInput = new Scanner(System.in); //Closing scanner throws "no line found" exception
-		System.out.println("Choose visualization type: seats (visualization by seats), "
-				+ "votes (visualization by vote percentage)");
-		String choice = keyInput.nextLine(); // gets choice of either visualization by seats or votes
-		visualizationType = choice;
-		 
-	}
-	
-	/**
-	 * This method asks the user what they would like 
-	 * to do after entering the poll data. Takes no 
-	 * arguments and returns nothing
-	 */
-	private void  getVisualizationOption() {
-			Scanner keyInput = new Scanner(System.in);
-			System.out.println("What would you like to do next? "
-					+ "(please choose one of the three provided options: \n"
-					+ "all (shows the results of all polls), "
-					+ "aggregate (shows aggregate result), quit (ends the application)");
-			visualizationOption = keyInput.nextLine(); // gets display option choice
-			 
-	}
-	
-	/**
-	 * This method prints the visualization for 
-	 * seats/votes in the visualization format 
-	 * the user selected. Takes no arguments and
-	 * returns nothing.
-	 */
-	private void displayResult() {
-		if (visualizationType.equals("seats")) { // Seat visualization
-			if (visualizationOption.equals("all")) {
-				System.out.println("\n");
-				Poll [] pollForPrinting = polls.toArray();
-				for (Poll pollToPrint : pollForPrinting) {
-					displayPollDataBySeat(pollToPrint);
-				}
-			} 
-			else if (visualizationOption.equals("aggregate")) {
-				System.out.println("\n" + displayAggregatePoll(partyList));
-			}
-		}
-		else if(visualizationType.equals("votes")) { // Vote visualization
-			if (visualizationOption.equals("all")) {
-				System.out.println("\n");
-				Poll [] pollForPrinting = polls.toArray();
-				for (Poll pollToPrint : pollForPrinting) {
-					displayPollDataByVote(pollToPrint);
-				}
-			} 
-			else if (visualizationOption.equals("aggregate")) {
-				System.out.println("\n" + displayAggregatePoll(partyList));
-			}
-		}
-	}
-	
-	//MAIN METHOD
-	/**
-	 * Creates an instance of TextApplication and
-	 * runs the whole program
-	 * @param args Array of all parameters used in 
-	 * the program or values passed into the program 
-	 */
-	public static void main(String[] args) {
-		TextApplication application = new TextApplication(); // Create application object
-		application.run(); // Run application
-	}
-
-}
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Scanner; 
+
+/** 
+ * This class utilizes the Party, Poll, PollList,
+ * and Factory classes to collect data related to 
+ * parties and polls, then displays a visualization 
+ * of the information; alternatively, it also 
+ * generates a random set of data to visualize.
+ * It can also run without prompting, in batch mode,
+ * when it is given command-line arguments.
+ * 
+ * @author Mackenzie Breithaupt
+ * @author Fedor Prokopchuk
+ * @author Ray Zegrer
+ * 
+ */
+public class TextApplication {
+	
+	//INSTANCE VARIABLES
+	private PollList polls;
+	private String visualizationType = ""; // By seats, or by votes
+	private String visualizationOption = ""; // All results, or Aggregate of the results
+	private String[] partyList;
+	// polls that did not change since they were last displayed are not drawn again
+	private RenderCache renderCache = new RenderCache();
+	
+	private static final int BATCH_OUTPUT_BUFFER_SIZE = 1 << 20;
+	private static final String BATCH_USAGE = 
+			"Usage: java TextApplication [options]\n"
+			+ "  --random <polls>      generate random polls (needs --seats and --parties)\n"
+			+ "  --csv <file>          read polls from a CSV file\n"
+			+ "  --jsonl <file>        read polls from a JSON-lines file\n"
+			+ "  --snapshot <file>     read polls from a poll list snapshot\n"
+			+ "  --seats <number>      number of seats available in the election\n"
+			+ "  --parties <a,b,...>   parties participating in the election\n"
+			+ "  --type seats|votes    visualization type (default seats)\n"
+			+ "  --option all|aggregate  visualization option (default all)\n"
+			+ "  --output <file>       write to a file instead of the screen\n"
+			+ "  --script <file>       run one set of options per line of the file\n"
+			+ "  --serve <port>        serve the visualizations over HTTP instead of writing them\n"
+			+ "Without options the application runs interactively.";
+	
+	//PUBLIC METHODS
+	/**
+	 * This method takes a poll as a parameter and prints
+	 * the visualization by seats method from the Party Class
+	 * @param pollToPrint Poll to be visualized
+	 */
+	public void displayPollDataBySeat(Poll pollToPrint) {
+		System.out.println(renderCache.textVisualizationBySeats(pollToPrint, 
+				PollList.MAX_STARS_FOR_VISUALIZATION, polls.seatsPerStar()));
+	}
+	
+	/**
+	 * This method takes a list of polls and prints the 
+	 * visualization by seats using the method from Party and 
+	 * the aggregated data 
+	 * @param pollInfo List of poll names
+	 */
+	public void displayPollsBySeat(String[] pollInfo) {
+		System.out.println(polls.textVisualizationBySeats());
+		System.out.println(displayAggregatePoll(pollInfo));
+	}
+	
+	/**
+	 * This method returns the aggregated visualization of
+	 * the list of polls provided as the argument
+	 * @param pollNames List of poll names
+	 * @return Aggregated visualization of the polls provided 
+	 * as a string
+	 */
+	public String displayAggregatePoll(String[] pollNames) {
+		Poll aggPoll = polls.getAggregatePoll(pollNames);
+		return aggPoll.textVisualizationBySeats(PollList.MAX_STARS_FOR_VISUALIZATION,
+				polls.seatsPerStar());
+	}
+	
+	/**
+	 * This method takes a poll as a parameter and prints
+	 * the visualization by votes using the method from Party
+	 * @param pollToPrint Poll that will be visualized
+	 */
+	public void displayPollDataByVote(Poll pollToPrint) {
+		System.out.println(renderCache.textVisualizationByVotes(pollToPrint, 
+				PollList.MAX_STARS_FOR_VISUALIZATION, 100 / PollList.MAX_STARS_FOR_VISUALIZATION + 1));
+	}
+	
+	/**
+	 * This method takes a list of poll names as the parameter
+	 * and visualizes the polls by votes as well as the aggregated
+	 * visual
+	 * @param pollInfo List of poll names
+	 */
+	public void displayPollsByVote(String[] pollInfo) {
+		System.out.println(polls.textVisualizationByVotes());
+		System.out.println(displayAggregatePoll(pollInfo));
+	}
+	
+	/**
+	 * This method runs the textApplication program, 
+	 * it takes no parameters and doesn't return anything
+	 */
+	public void run() {
+		setUpPollTracker(); // Initial setup for tracking
+		while (!visualizationOption.equals("quit")) {
+			getVisualizationType(); // set visualization type
+			getVisualizationOption(); // set visualization option
+			displayResult(); // output visualization
+		}
+	}
+	
+	/**
+	 * This method runs the application without prompting the user, 
+	 * reading everything it needs from the arguments. All output goes
+	 * through one large buffered writer that is flushed at the end.
+	 * @param args Batch options, see BATCH_USAGE
+	 * @throws IOException If reading the input or writing the output fails
+	 */
+	public void runBatch(String[] args) throws IOException {
+		String output = optionValue(args, "--output");
+		String script = optionValue(args, "--script");
+		Writer out;
+		if (output != null) {
+			out = Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8);
+		} 
+		else {
+			out = new BufferedWriter(new OutputStreamWriter(
+					new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), 
+					BATCH_OUTPUT_BUFFER_SIZE);
+		}
+		
+		try {
+			if (script != null) {
+				// every line of the script is one set of options
+				for (String line : Files.readAllLines(Paths.get(script), StandardCharsets.UTF_8)) {
+					line = line.trim();
+					if (!line.isEmpty() && !line.startsWith("#")) {
+						runBatchJob(line.split("\\s+"), out);
+					}
+				}
+			} 
+			else {
+				runBatchJob(args, out);
+			}
+		} finally {
+			if (output != null) {
+				out.close();
+			} 
+			else {
+				out.flush(); // standard output stays open
+			}
+		}
+	}
+	
+	//PRIVATE METHODS
+	/**
+	 * This method loads the polls for one batch job and 
+	 * writes the visualization that was asked for
+	 * @param args Options of the job
+	 * @param out Where the visualization is written to
+	 * @throws IOException If reading the input or writing the output fails
+	 */
+	private void runBatchJob(String[] args, Appendable out) throws IOException {
+		String seats = optionValue(args, "--seats");
+		String parties = optionValue(args, "--parties");
+		String random = optionValue(args, "--random");
+		String csv = optionValue(args, "--csv");
+		String jsonl = optionValue(args, "--jsonl");
+		String snapshot = optionValue(args, "--snapshot");
+		String serve = optionValue(args, "--serve");
+		visualizationType = defaultValue(optionValue(args, "--type"), "seats");
+		visualizationOption = defaultValue(optionValue(args, "--option"), "all");
+		partyList = (parties == null) ? null : parties.split(",");
+		if (!visualizationType.equals("seats") && !visualizationType.equals("votes")) {
+			throw new IllegalArgumentException("Unknown visualization type: " + visualizationType);
+		}
+		if (!visualizationOption.equals("all") && !visualizationOption.equals("aggregate")) {
+			throw new IllegalArgumentException("Unknown visualization option: " + visualizationOption);
+		}
+		
+		// load the polls
+		if (random != null) {
+			if (seats == null || partyList == null) {
+				throw new IllegalArgumentException("--random needs --seats and --parties");
+			}
+			Factory randomFactory = new Factory(parseNumber(seats, "--seats"));
+			randomFactory.setPartyNames(partyList);
+			polls = randomFactory.createRandomPollList(parseNumber(random, "--random"));
+		} 
+		else if (csv != null || jsonl != null) {
+			if (seats == null) {
+				throw new IllegalArgumentException("--csv and --jsonl need --seats");
+			}
+			polls = new PollList(parseNumber(seats, "--seats"));
+			PollImporter importer = new PollImporter(polls);
+			ImportReport report = (csv != null) 
+					? importer.importCsv(Paths.get(csv)) 
+					: importer.importJsonLines(Paths.get(jsonl));
+			if (!report.isClean()) {
+				System.err.println(report);
+			}
+		} 
+		else if (snapshot != null) {
+			try (MappedPollList mapped = PollListSnapshot.open(Paths.get(snapshot))) {
+				polls = mapped.toPollList();
+			}
+		} 
+		else {
+			throw new IllegalArgumentException("No input given, use --random, --csv, --jsonl or --snapshot");
+		}
+		if (partyList == null) {
+			partyList = polls.getPartyNames();
+		}
+		
+		if (serve != null) {
+			// the server keeps running after the batch job returns
+			// the only server of the process, so the JVM-wide no delay setting is safe
+			PollServer server = new PollServer(polls, new InetSocketAddress(parseNumber(serve, "--serve")), true);
+			server.start();
+			System.out.println("Serving " + polls.getNumOfPolls() + " polls on http://localhost:" 
+					+ server.getPort() + "/");
+			return;
+		}
+		writeResult(out);
+	}
+	
+	/**
+	 * This method writes the visualization for seats/votes
+	 * in the visualization format that was chosen
+	 * @param out Where the visualization is written to
+	 * @throws IOException If writing fails
+	 */
+	private void writeResult(Appendable out) throws IOException {
+		boolean bySeats = visualizationType.equals("seats");
+		if (visualizationOption.equals("all")) {
+			if (bySeats) polls.textVisualizationBySeats(out);
+			else polls.textVisualizationByVotes(out);
+		} 
+		else if (visualizationOption.equals("aggregate")) {
+			Poll aggPoll = polls.getAggregatePoll(partyList);
+			if (bySeats) aggPoll.textVisualizationBySeats(out, 
+					PollList.MAX_STARS_FOR_VISUALIZATION, polls.seatsPerStar());
+			else aggPoll.textVisualizationByVotes(out, PollList.MAX_STARS_FOR_VISUALIZATION, 
+					100 / PollList.MAX_STARS_FOR_VISUALIZATION + 1);
+			out.append('\n');
+		}
+	}
+	
+	/**
+	 * This method finds the value that follows an option in the arguments
+	 * @param args Arguments to search
+	 * @param option Name of the option
+	 * @return The value of the option, or null if it is not given
+	 */
+	private static String optionValue(String[] args, String option) {
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals(option)) {
+				if (i + 1 == args.length) {
+					throw new IllegalArgumentException("Missing value for " + option);
+				}
+				return args[i + 1];
+			}
+		}
+		return null;
+	}
+	
+	private static String defaultValue(String value, String defaultValue) {
+		return (value == null) ? defaultValue : value;
+	}
+	
+	private static int parseNumber(String value, String option) {
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(option + " must be a whole number");
+		}
+	}
+	
+	/**
+	 * This method is used to prompt the user for the
+	 * data used to set up the poll tracker
+	 * Takes no arguments and returns nothing
+	 */
+	private void setUpPollTracker() {
+		//VARIABLES
+		Scanner keyInput = new Scanner(System.in); //Closing scanner throws "no line found" exception
+		int numSeats, numOfPolls;
+		String parties;
+		
+		//TEXT AND USER INPUT
+		System.out.println("Welcome to the poll tracker \n"
+				+ "How many seats are available in this election?");
+		numSeats = keyInput.nextInt(); // get number of seats
+		keyInput.nextLine();
+		Factory randomFactory = new Factory(numSeats);
+		
+		System.out.println("What are the parties participating in this election? "
+				+ "(provide names separated by commas)");
+		parties = keyInput.nextLine(); // get string list of party names
+		partyList = parties.split(",");
+		randomFactory.setPartyNames(partyList);
+		
+		System.out.println("How many polls would you like to track?");
+		numOfPolls = keyInput.nextInt(); // get number of polls to track
+		keyInput.nextLine();
+		
+		System.out.println("Would you like me to generate a set of random polls? (yes/no)");
+		if (keyInput.nextLine().equals("yes")) {
+			polls = randomFactory.createRandomPollList(numOfPolls); // create random polls
+		} 
+		else {
+			polls = promptForPollList(numOfPolls, numSeats, partyList); // get user defined poll information
+		}
+			 
+	}
+	
+	/**
+	 * This method is used to gather data from the user
+	 * when they choose to not use random generated data.
+	 * 
+	 * @param numOfPolls Takes the number of polls to be 
+	 * made as an integer
+	 * @param numOfSeats Takes the number of seats in the 
+	 * election as an integer
+	 * @param parties Takes a list of party names as a list 
+	 * of Strings
+	 * @return a PollList of the polls entered by the user
+	 */
+	private PollList promptForPollList(int numOfPolls, int numOfSeats, String[] parties) {
+		PollList listOfPolls = new PollList(numOfPolls, numOfSeats);
+		Scanner keyInput = new Scanner(System.in); //Closing scanner throws "no line found" exception
+		for (int i = 0; i < numOfPolls; i++) {
+			// prompt user for info for each poll, starting with poll name 
+			System.out.println("Name of poll: ");
+			String pollName = keyInput.nextLine();
+			// initialize poll
+			Poll newPoll = new Poll(pollName, parties.length);
+			
+			// add parties to poll
+			for (String party : parties) {
+				// prompt for expected number of seats
+				System.out.println("Expected number of seats for " + party + ": ");
+				float expectedSeats = keyInput.nextFloat();
+				keyInput.nextLine();
+				// prompt for expected percentage of votes
+				System.out.println("Expected percentage of the vote for " + party + ": (enter as a decimal)");
+				float expectedVote = keyInput.nextFloat();
+				keyInput.nextLine();
+				// make new party and add to poll newPoll
+				Party newParty = new Party(party, expectedSeats, expectedVote);
+				newPoll.addParty(newParty);
+			}
+			listOfPolls.addPoll(newPoll);
+		}
+		 
+		return listOfPolls;
+	}
+	
+	/**
+	 * This method prompts the user for the type of 
+	 * visualization, either by seats or votes.
+	 * Takes no arguments and doesn't return anything
+	 */
+	private void getVisualizationType() {
+		Scanner keyInput = new Scanner(System.in); //Closing scanner throws "no line found" exception
+		System.out.println("Choose visualization type: seats (visualization by seats), "
+				+ "votes (visualization by vote percentage)");
+		String choice = keyInput.nextLine(); // gets choice of either visualization by seats or votes
+		visualizationType = choice;
+		 
+	}
+	
+	/**
+	 * This method asks the user what they would like 
+	 * to do after entering the poll data. Takes no 
+	 * arguments and returns nothing
+	 */
+	private void  getVisualizationOption() {
+			Scanner keyInput = new Scanner(System.in);
+			System.out.println("What would you like to do next? "
+					+ "(please choose one of the three provided options: \n"
+					+ "all (shows the results of all polls), "
+					+ "aggregate (shows aggregate result), quit (ends the application)");
+			visualizationOption = keyInput.nextLine(); // gets display option choice
+			 
+	}
+	
+	/**
+	 * This method prints the visualization for 
+	 * seats/votes in the visualization format 
+	 * the user selected. Takes no arguments and
+	 * returns nothing.
+	 */
+	private void displayResult() {
+		if (visualizationType.equals("seats")) { // Seat visualization
+			if (visualizationOption.equals("all")) {
+				System.out.println("\n");
+				Poll [] pollForPrinting = polls.toArray();
+				for (Poll pollToPrint : pollForPrinting) {
+					displayPollDataBySeat(pollToPrint);
+				}
+			} 
+			else if (visualizationOption.equals("aggregate")) {
+				System.out.println("\n" + displayAggregatePoll(partyList));
+			}
+		}
+		else if(visualizationType.equals("votes")) { // Vote visualization
+			if (visualizationOption.equals("all")) {
+				System.out.println("\n");
+				Poll [] pollForPrinting = polls.toArray();
+				for (Poll pollToPrint : pollForPrinting) {
+					displayPollDataByVote(pollToPrint);
+				}
+			} 
+			else if (visualizationOption.equals("aggregate")) {
+				System.out.println("\n" + displayAggregatePoll(partyList));
+			}
+		}
+	}
+	
+	//MAIN METHOD
+	/**
+	 * Creates an instance of TextApplication and
+	 * runs the whole program, interactively if there
+	 * are no arguments and in batch mode otherwise
+	 * @param args Array of all parameters used in 
+	 * the program or values passed into the program 
+	 */
+	public static void main(String[] args) {
+		TextApplication application = new TextApplication(); // Create application object
+		if (args.length == 0) {
+			application.run(); // Run application
+			return;
+		}
+		try {
+			application.runBatch(args); // Run application without prompts
+		} catch (IllegalArgumentException e) {
+			System.err.println("Error: " + e.getMessage() + "\n" + BATCH_USAGE);
+			System.exit(2);
+		} catch (IOException e) {
+			System.err.println("Error: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+}
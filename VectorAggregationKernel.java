@@ -0,0 +1,58 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Aggregation kernel that adds up as many floats at a time as the widest
+ * SIMD registers of the processor hold. Only loaded by AggregationKernel.vector,
+ * as it needs the jdk.incubator.vector module.
+ * <p>
+ * Every vector of floats is widened to two vectors of doubles before it is
+ * added, so each value is added to a double as in the scalar kernel. Only
+ * the order of the additions differs, the sums agree to within the rounding
+ * of a double, not of a float.
+ */
+class VectorAggregationKernel extends AggregationKernel {
+
+	private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+	// doubles in registers of the same size, half as many lanes as SPECIES
+	private static final VectorSpecies<Double> DOUBLE_SPECIES = VectorSpecies.of(double.class, SPECIES.vectorShape());
+
+	public String getName() {
+		return "vector" + SPECIES.vectorBitSize();
+	}
+
+	public void accumulate(float[] column, int from, int to, double[] sumAndCount) {
+		double sum = 0;
+		long count = 0;
+		FloatVector zero = FloatVector.zero(SPECIES);
+		DoubleVector lowLanes = DoubleVector.zero(DOUBLE_SPECIES);
+		DoubleVector highLanes = DoubleVector.zero(DOUBLE_SPECIES);
+		int index = from;
+		int vectorEnd = from + SPECIES.loopBound(to - from);
+		for (; index < vectorEnd; index += SPECIES.length()) {
+			FloatVector values = FloatVector.fromArray(SPECIES, column, index);
+			VectorMask<Float> missing = values.test(VectorOperators.IS_NAN);
+			FloatVector present = values.blend(zero, missing);
+			// the lower and upper half of the lanes, widened to doubles
+			lowLanes = lowLanes.add((DoubleVector) present.convertShape(VectorOperators.F2D, DOUBLE_SPECIES, 0));
+			highLanes = highLanes.add((DoubleVector) present.convertShape(VectorOperators.F2D, DOUBLE_SPECIES, 1));
+			count += SPECIES.length() - missing.trueCount();
+		}
+		sum += lowLanes.add(highLanes).reduceLanes(VectorOperators.ADD);
+
+		// values left over after the last full vector
+		for (; index < to; index++) {
+			float value = column[index];
+			if (value == value) { // false for NaN
+				sum += value;
+				count++;
+			}
+		}
+		sumAndCount[0] += sum;
+		sumAndCount[1] += count;
+	}
+
+}
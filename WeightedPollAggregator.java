@@ -0,0 +1,262 @@
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Class that accumulates the seats and percentage of votes of parties over
+ * polls, weighing every poll by its sample size and by how long before the
+ * reference date it was fielded. A poll fielded one half-life before the
+ * reference date counts half as much as one fielded on that date.
+ * <p>
+ * Weighted sums are kept relative to the reference date. Moving the date
+ * forward with advanceTo multiplies the sums by the decay over the days
+ * passed instead of going over the polls again. Polls without a fielded
+ * date are not decayed, and polls without a sample size count as
+ * DEFAULT_SAMPLE_SIZE people.
+ */
+public class WeightedPollAggregator {
+
+	public static final int DEFAULT_SAMPLE_SIZE = 1000;
+
+	private double halfLifeDays;
+	private LocalDate referenceDate;
+
+	private String[] names = new String[8];
+	private int numOfParties;
+	// maps lower case party names to their position in the accumulators
+	private HashMap<String, Integer> nameIndex = new HashMap<String, Integer>();
+	private int[] numOfPolls = new int[8];
+	// sums for polls with a fielded date, relative to the reference date
+	private double[] decayedWeights = new double[8];
+	private double[] decayedSeats = new double[8];
+	private double[] decayedPercentages = new double[8];
+	// sums for polls without a fielded date
+	private double[] weights = new double[8];
+	private double[] seats = new double[8];
+	private double[] percentages = new double[8];
+
+	/**
+	 * Constructor for WeightedPollAggregator class.
+	 * @param halfLifeDays = number of days after which a poll counts half as much,
+	 * 0 to not decay polls at all.
+	 * @param referenceDate = date the aggregate is calculated for, null for today.
+	 */
+	public WeightedPollAggregator(double halfLifeDays, LocalDate referenceDate) {
+		if (halfLifeDays < 0) {
+			System.out.println("Half-life cannot be negative. Polls will not be decayed.");
+			halfLifeDays = 0;
+		}
+		this.halfLifeDays = halfLifeDays;
+		this.referenceDate = (referenceDate == null) ? LocalDate.now() : referenceDate;
+	}
+
+	/**
+	 * Getter methods that return the half-life in days and the reference date.
+	 */
+	public double getHalfLifeDays() {
+		return halfLifeDays;
+	}
+
+	public LocalDate getReferenceDate() {
+		return referenceDate;
+	}
+
+	/**
+	 * Method to obtain the weight of a poll on the reference date.
+	 * @param poll = poll to weigh.
+	 * @return = sample size of the poll multiplied by its decay.
+	 */
+	public double weightOf(Poll poll) {
+		return sampleSizeOf(poll) * decayOf(poll);
+	}
+
+	/**
+	 * Method to add the parties of a poll to the weighted sums.
+	 * @param pollToAdd = poll to add, null is ignored.
+	 */
+	public void addPoll(Poll pollToAdd) {
+		if (pollToAdd == null) {
+			return;
+		}
+		for (Party currentParty : pollToAdd.getParties()) {
+			addParty(pollToAdd, currentParty);
+		}
+	}
+
+	/**
+	 * Method to add the data of one party in a poll to the weighted sums.
+	 * @param poll = poll the party is in.
+	 * @param partyToAdd = party to add, null is ignored.
+	 */
+	public void addParty(Poll poll, Party partyToAdd) {
+		if (partyToAdd == null) {
+			return;
+		}
+		int index = indexOf(partyToAdd.getName(), true);
+		double weight = weightOf(poll);
+		double seatSum = weight * partyToAdd.getProjectedNumberOfSeats();
+		double percentageSum = weight * partyToAdd.getProjectedPercentageOfVotes();
+		if (isDecayed(poll)) {
+			decayedWeights[index] += weight;
+			decayedSeats[index] += seatSum;
+			decayedPercentages[index] += percentageSum;
+		}
+		else {
+			weights[index] += weight;
+			seats[index] += seatSum;
+			percentages[index] += percentageSum;
+		}
+		numOfPolls[index]++;
+	}
+
+	/**
+	 * Method to take the data of one party in a poll, that was added earlier,
+	 * back out of the weighted sums. The sample size and fielded date of the
+	 * poll must not have changed since the party was added.
+	 * @param poll = poll the party is in.
+	 * @param partyToRemove = party to remove, null is ignored.
+	 */
+	public void removeParty(Poll poll, Party partyToRemove) {
+		if (partyToRemove == null) {
+			return;
+		}
+		int index = indexOf(partyToRemove.getName(), false);
+		if (index < 0 || numOfPolls[index] == 0) {
+			return;
+		}
+		numOfPolls[index]--;
+		if (numOfPolls[index] == 0) {
+			// avoid leaving rounding errors behind
+			decayedWeights[index] = decayedSeats[index] = decayedPercentages[index] = 0;
+			weights[index] = seats[index] = percentages[index] = 0;
+			return;
+		}
+		double weight = weightOf(poll);
+		double seatSum = weight * partyToRemove.getProjectedNumberOfSeats();
+		double percentageSum = weight * partyToRemove.getProjectedPercentageOfVotes();
+		if (isDecayed(poll)) {
+			decayedWeights[index] -= weight;
+			decayedSeats[index] -= seatSum;
+			decayedPercentages[index] -= percentageSum;
+		}
+		else {
+			weights[index] -= weight;
+			seats[index] -= seatSum;
+			percentages[index] -= percentageSum;
+		}
+	}
+
+	/**
+	 * Method to move the reference date, decaying every dated poll by the
+	 * days passed. Costs one multiplication per party, whatever the number of polls.
+	 * @param newReferenceDate = date the aggregate is calculated for.
+	 */
+	public void advanceTo(LocalDate newReferenceDate) {
+		if (newReferenceDate == null) {
+			return;
+		}
+		if (halfLifeDays > 0) {
+			long days = ChronoUnit.DAYS.between(referenceDate, newReferenceDate);
+			double factor = Math.pow(0.5, days / halfLifeDays);
+			for (int index = 0; index < numOfParties; index++) {
+				decayedWeights[index] *= factor;
+				decayedSeats[index] *= factor;
+				decayedPercentages[index] *= factor;
+			}
+		}
+		referenceDate = newReferenceDate;
+	}
+
+	/**
+	 * Method to obtain the total weight behind the average of a party, which
+	 * is the number of people sampled once the decay is taken into account.
+	 * @param name = name of the party.
+	 * @return = effective sample size, 0 if no poll has the party.
+	 */
+	public double getEffectiveSampleSize(String name) {
+		int index = indexOf(name, false);
+		return (index < 0) ? 0 : decayedWeights[index] + weights[index];
+	}
+
+	/**
+	 * Method to obtain the weighted expected number of seats and percentage of votes for a party.
+	 * @param name = name of party to get expected results for.
+	 * @return = instance of Party with expected seats and percentage.
+	 */
+	public Party getAveragePartyData(String name) {
+		Party newParty = new Party(name);
+		int index = indexOf(name, false);
+		double totalWeight = (index < 0) ? 0 : decayedWeights[index] + weights[index];
+
+		if (index >= 0 && numOfPolls[index] != 0 && totalWeight > 0) {
+			newParty.setProjectedNumberOfSeats((float) ((decayedSeats[index] + seats[index]) / totalWeight));
+			newParty.setProjectedPercentageOfVotes(Math.min(1f,
+					(float) ((decayedPercentages[index] + percentages[index]) / totalWeight)));
+		}
+		else {
+			newParty.setProjectedNumberOfSeats(0f);
+			newParty.setProjectedPercentageOfVotes(0f);
+		}
+		return newParty;
+	}
+
+	/**
+	 * Method to obtain a poll that represents the weighted aggregate of all polls added.
+	 * @param partyNames = names of parties to include in the aggregate poll.
+	 * @return = aggregate poll with desired parties.
+	 */
+	public Poll getAggregatePoll(String[] partyNames) {
+		Poll aggregatePoll = new Poll("Weighted Aggregate", partyNames.length);
+		aggregatePoll.setFieldedDate(referenceDate);
+		for (String party : partyNames) {
+			aggregatePoll.addParty(getAveragePartyData(party));
+		}
+		return aggregatePoll;
+	}
+
+	// PRIVATE METHODS
+	private boolean isDecayed(Poll poll) {
+		return halfLifeDays > 0 && poll.getFieldedDate() != null;
+	}
+
+	private static int sampleSizeOf(Poll poll) {
+		return (poll.getSampleSize() > 0) ? poll.getSampleSize() : DEFAULT_SAMPLE_SIZE;
+	}
+
+	private double decayOf(Poll poll) {
+		if (!isDecayed(poll)) {
+			return 1;
+		}
+		long age = ChronoUnit.DAYS.between(poll.getFieldedDate(), referenceDate);
+		return Math.pow(0.5, age / halfLifeDays);
+	}
+
+	private int indexOf(String name, boolean create) {
+		String key = Poll.partyKey(name);
+		Integer index = nameIndex.get(key);
+		if (index != null) {
+			return index;
+		}
+		if (!create) {
+			return -1;
+		}
+
+		// grow accumulators if they are full
+		if (numOfParties == names.length) {
+			int newLength = names.length * 2;
+			names = Arrays.copyOf(names, newLength);
+			numOfPolls = Arrays.copyOf(numOfPolls, newLength);
+			decayedWeights = Arrays.copyOf(decayedWeights, newLength);
+			decayedSeats = Arrays.copyOf(decayedSeats, newLength);
+			decayedPercentages = Arrays.copyOf(decayedPercentages, newLength);
+			weights = Arrays.copyOf(weights, newLength);
+			seats = Arrays.copyOf(seats, newLength);
+			percentages = Arrays.copyOf(percentages, newLength);
+		}
+		names[numOfParties] = name;
+		nameIndex.put(key, numOfParties);
+		return numOfParties++;
+	}
+
+}
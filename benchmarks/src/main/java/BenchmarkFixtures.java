@@ -0,0 +1,145 @@
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Builds the data sets and operations measured by the benchmarks. The 
+ * application classes are in the default package, which JMH benchmarks 
+ * cannot be in, so the benchmarks in the benchmarks package reach them 
+ * through the operations returned here. All data is generated by Factory 
+ * from a fixed seed so every run measures the same polls.
+ */
+public class BenchmarkFixtures {
+	
+	public static final int SEATS = 338;
+	public static final long SEED = 20211126L;
+	
+	private BenchmarkFixtures() {
+	}
+	
+	/**
+	 * Operation that looks up the party with index i % partyCount in a poll.
+	 */
+	public static IntFunction<Object> getParty(int partyCount) {
+		Factory factory = factoryWithParties(partyCount);
+		final String[] names = factory.getPartyNames();
+		final Poll poll = factory.createRandomPolls(1, SEED, false)[0];
+		return i -> poll.getParty(names[i % names.length]);
+	}
+	
+	/**
+	 * Operation that adds party i % partyCount to a full poll, replacing 
+	 * the party with the same name.
+	 */
+	public static IntFunction<Object> addParty(int partyCount) {
+		Factory factory = factoryWithParties(partyCount);
+		final Poll poll = factory.createRandomPolls(1, SEED, false)[0];
+		final Party[] parties = factory.createRandomPolls(1, SEED + 1, false)[0].getParties();
+		return i -> {
+			Party party = parties[i % parties.length];
+			poll.addParty(party);
+			return party;
+		};
+	}
+	
+	/**
+	 * Operation that reads the aggregate poll of a list from its running totals.
+	 */
+	public static Supplier<Object> getAggregatePoll(int pollCount) {
+		final PollList list = pollList(pollCount);
+		final String[] names = list.getPartyNames();
+		return () -> list.getAggregatePoll(names);
+	}
+	
+	/**
+	 * Operation that reads the aggregate poll of a list by party IDs.
+	 */
+	public static Supplier<Object> getAggregatePollById(int pollCount) {
+		final PollList list = pollList(pollCount);
+		final int[] ids = list.getPartyIds(list.getPartyNames());
+		return () -> list.getAggregatePoll(ids);
+	}
+	
+	/**
+	 * Operation that reads the aggregate of a list into a reused holder.
+	 */
+	public static Supplier<Object> fillAggregate(int pollCount) {
+		final PollList list = pollList(pollCount);
+		final int[] ids = list.getPartyIds(list.getPartyNames());
+		final AggregateResult result = new AggregateResult(ids.length);
+		return () -> {
+			list.fillAggregate(ids, result);
+			return result;
+		};
+	}
+	
+	/**
+	 * Operation that recomputes the aggregate poll of a list from every poll.
+	 */
+	public static Supplier<Object> getAggregatePollParallel(int pollCount) {
+		final PollList list = pollList(pollCount);
+		final String[] names = list.getPartyNames();
+		return () -> list.getAggregatePollParallel(names);
+	}
+	
+	/**
+	 * Operation that aggregates every party of a list, either from the running 
+	 * totals ("totals"), by going over every poll ("parallel"), or by adding 
+	 * up the party columns with an aggregation kernel ("scalar" or "vector"). 
+	 */
+	public static Supplier<Object> aggregate(int pollCount, String method) {
+		final PollList list = pollList(pollCount);
+		final String[] names = list.getPartyNames();
+		if (method.equals("totals")) {
+			return () -> list.getAggregatePoll(names);
+		}
+		if (method.equals("parallel")) {
+			return () -> list.getAggregatePollParallel(names);
+		}
+		final AggregationKernel kernel = method.equals("vector") 
+				? AggregationKernel.vector() : AggregationKernel.scalar();
+		list.getAggregatePoll(names, kernel); // builds the columns outside the measurement
+		return () -> list.getAggregatePoll(names, kernel);
+	}
+	
+	/**
+	 * Operation that draws one party by seats.
+	 */
+	public static Supplier<Object> partyTextVisualizationBySeats() {
+		final PollList list = pollList(1);
+		final Party party = list.toArray()[0].getParties()[0];
+		final int seatsPerStar = list.seatsPerStar();
+		return () -> party.textVisualizationBySeats(PollList.MAX_STARS_FOR_VISUALIZATION, seatsPerStar);
+	}
+	
+	/**
+	 * Operation that draws every poll of a list by seats.
+	 */
+	public static Supplier<Object> pollListTextVisualizationBySeats(int pollCount) {
+		final PollList list = pollList(pollCount);
+		return () -> list.textVisualizationBySeats();
+	}
+	
+	/**
+	 * Operation that generates a random poll list.
+	 */
+	public static Supplier<Object> createRandomPollList(int pollCount) {
+		final Factory factory = new Factory(SEATS);
+		return () -> factory.createRandomPollList(pollCount, SEED, false);
+	}
+	
+	// PRIVATE METHODS
+	private static PollList pollList(int pollCount) {
+		return new Factory(SEATS).createRandomPollList(pollCount, SEED, false);
+	}
+	
+	private static Factory factoryWithParties(int partyCount) {
+		String[] names = new String[partyCount];
+		for (int index = 0; index < partyCount; index++) {
+			names[index] = "Party" + index;
+		}
+		Factory factory = new Factory(SEATS);
+		factory.setPartyNames(names);
+		return factory;
+	}
+	
+}
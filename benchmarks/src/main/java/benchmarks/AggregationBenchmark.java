@@ -0,0 +1,49 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full-history aggregation of a poll list: from the running totals, by going 
+ * over every poll, and by adding up the party columns with the scalar and 
+ * the vector aggregation kernels.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class AggregationBenchmark {
+	
+	@Param({"10000", "1000000"})
+	public int pollCount;
+	
+	@Param({"totals", "parallel", "scalar", "vector"})
+	public String method;
+	
+	private Supplier<Object> aggregate;
+	
+	@Setup
+	public void setUp() {
+		aggregate = Fixtures.create("aggregate", pollCount, method);
+	}
+	
+	@Benchmark
+	public Object aggregate() {
+		return aggregate.get();
+	}
+	
+}
@@ -0,0 +1,33 @@
+package benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Calls the factory methods of BenchmarkFixtures, which is in the default 
+ * package and so can only be reached by reflection from here. This is only 
+ * done while setting up a benchmark, never in the measured code.
+ */
+final class Fixtures {
+	
+	private Fixtures() {
+	}
+	
+	@SuppressWarnings("unchecked")
+	static <T> T create(String method, Object... args) {
+		try {
+			Class<?> fixtures = Class.forName("BenchmarkFixtures");
+			for (Method candidate : fixtures.getMethods()) {
+				if (candidate.getName().equals(method) && candidate.getParameterCount() == args.length) {
+					return (T) candidate.invoke(null, args);
+				}
+			}
+			throw new IllegalArgumentException("No fixture " + method + " with " + args.length + " arguments");
+		} catch (ClassNotFoundException | IllegalAccessException e) {
+			throw new IllegalStateException("Cannot reach BenchmarkFixtures", e);
+		} catch (InvocationTargetException e) {
+			throw new IllegalStateException("Fixture " + method + " failed", e.getCause());
+		}
+	}
+	
+}
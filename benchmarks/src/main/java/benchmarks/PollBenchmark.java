@@ -0,0 +1,52 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Party lookup and replacement in a single poll, for small and large numbers of parties.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PollBenchmark {
+	
+	@Param({"7", "100", "1000"})
+	public int partyCount;
+	
+	private IntFunction<Object> getParty;
+	private IntFunction<Object> addParty;
+	private int counter;
+	
+	@Setup
+	public void setUp() {
+		getParty = Fixtures.create("getParty", partyCount);
+		addParty = Fixtures.create("addParty", partyCount);
+	}
+	
+	@Benchmark
+	public Object getParty() {
+		return getParty.apply(counter++ & Integer.MAX_VALUE);
+	}
+	
+	@Benchmark
+	public Object addParty() {
+		return addParty.apply(counter++ & Integer.MAX_VALUE);
+	}
+	
+}
@@ -0,0 +1,72 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Aggregation and rendering of a whole poll list, for growing numbers of polls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PollListBenchmark {
+	
+	@Param({"100", "10000", "100000"})
+	public int pollCount;
+	
+	private Supplier<Object> getAggregatePoll;
+	private Supplier<Object> getAggregatePollById;
+	private Supplier<Object> fillAggregate;
+	private Supplier<Object> getAggregatePollParallel;
+	private Supplier<Object> textVisualizationBySeats;
+	
+	@Setup
+	public void setUp() {
+		getAggregatePoll = Fixtures.create("getAggregatePoll", pollCount);
+		getAggregatePollById = Fixtures.create("getAggregatePollById", pollCount);
+		fillAggregate = Fixtures.create("fillAggregate", pollCount);
+		getAggregatePollParallel = Fixtures.create("getAggregatePollParallel", pollCount);
+		textVisualizationBySeats = Fixtures.create("pollListTextVisualizationBySeats", pollCount);
+	}
+	
+	@Benchmark
+	public Object getAggregatePoll() {
+		return getAggregatePoll.get();
+	}
+	
+	@Benchmark
+	public Object getAggregatePollById() {
+		return getAggregatePollById.get();
+	}
+	
+	@Benchmark
+	public Object fillAggregate() {
+		return fillAggregate.get();
+	}
+	
+	@Benchmark
+	public Object getAggregatePollParallel() {
+		return getAggregatePollParallel.get();
+	}
+	
+	@Benchmark
+	public Object textVisualizationBySeats() {
+		return textVisualizationBySeats.get();
+	}
+	
+}
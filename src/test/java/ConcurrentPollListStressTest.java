@@ -0,0 +1,197 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Stress test that adds polls to a ConcurrentPollList from several writer
+ * threads while reader threads aggregate and render it.
+ * <p>
+ * Writer w adds the polls "W&lt;w&gt;-0", "W&lt;w&gt;-1", ... in order. Poll k of
+ * writer w holds the party "W&lt;w&gt;" with k + 1 seats and the party "All" with
+ * 1 seat. A snapshot holding n polls of writer w therefore averages
+ * (n + 1) / 2 seats for "W&lt;w&gt;", so readers can work out from the totals
+ * alone how many polls of each writer a snapshot holds, and check that the
+ * rendering shows the same polls.
+ */
+public class ConcurrentPollListStressTest {
+
+	private static final int WRITERS = 4;
+	private static final int READERS = 4;
+	private static final int POLLS_PER_WRITER = 2000;
+	private static final Pattern POLL_NAME = Pattern.compile("W(\\d+)-(\\d+)");
+
+	@Test
+	public void writersAndReadersAgreeOnEverySnapshot() throws Exception {
+		ConcurrentPollList list = new ConcurrentPollList(1000);
+		Set<Poll> added = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<Poll, Boolean>()));
+		AtomicInteger writersLeft = new AtomicInteger(WRITERS);
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService threads = Executors.newFixedThreadPool(WRITERS + READERS);
+		List<Future<?>> results = new ArrayList<Future<?>>();
+		try {
+			for (int writer = 0; writer < WRITERS; writer++) {
+				int w = writer;
+				results.add(threads.submit(() -> {
+					start.await();
+					for (int k = 0; k < POLLS_PER_WRITER; k++) {
+						Poll poll = newPoll(w, k);
+						added.add(poll);
+						list.addPoll(poll);
+					}
+					writersLeft.decrementAndGet();
+					return null;
+				}));
+			}
+			for (int reader = 0; reader < READERS; reader++) {
+				results.add(threads.submit(() -> {
+					start.await();
+					int rounds = 0;
+					while (writersLeft.get() > 0 || rounds < 3) {
+						checkLiveReads(list);
+						checkSnapshot(list.toPollList());
+						rounds++;
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> result : results) {
+				result.get(2, TimeUnit.MINUTES);
+			}
+		} finally {
+			threads.shutdownNow();
+		}
+
+		// every poll appears exactly once, and each writer's polls in the order they were added
+		Poll[] polls = list.toArray();
+		assertEquals(WRITERS * POLLS_PER_WRITER, polls.length);
+		Set<Poll> seen = Collections.newSetFromMap(new IdentityHashMap<Poll, Boolean>());
+		Collections.addAll(seen, polls);
+		assertEquals(added, seen);
+		int[] next = new int[WRITERS];
+		for (Poll poll : polls) {
+			Matcher name = POLL_NAME.matcher(poll.getPollName());
+			assertTrue(name.matches());
+			int writer = Integer.parseInt(name.group(1));
+			assertEquals(next[writer]++, Integer.parseInt(name.group(2)));
+		}
+		checkSnapshot(list.toPollList());
+	}
+
+	private static Poll newPoll(int writer, int k) {
+		Poll poll = new Poll("W" + writer + "-" + k, 2);
+		poll.addParty(new Party("W" + writer, k + 1, 0.5f));
+		poll.addParty(new Party("All", 1, 0.01f));
+		return poll;
+	}
+
+	private static String[] partyNames() {
+		String[] names = new String[WRITERS + 1];
+		for (int writer = 0; writer < WRITERS; writer++) {
+			names[writer] = "W" + writer;
+		}
+		names[WRITERS] = "All";
+		return names;
+	}
+
+	/**
+	 * Number of polls of a writer in a snapshot, worked out from the average
+	 * seats of the writer's party, 0 seats when the snapshot has none.
+	 */
+	private static int pollsOf(Party average) {
+		return Math.max(0, Math.round(2 * average.getProjectedNumberOfSeats() - 1));
+	}
+
+	/**
+	 * Each call on the list reads its own snapshot, so the counts they imply
+	 * must lie between the poll counts read before and after.
+	 */
+	private static void checkLiveReads(ConcurrentPollList list) {
+		int before = list.getNumOfPolls();
+		Poll aggregate = list.getAggregatePoll(partyNames());
+		String rendering = list.textVisualizationBySeats();
+		int after = list.getNumOfPolls();
+
+		int aggregated = 0;
+		for (int writer = 0; writer < WRITERS; writer++) {
+			aggregated += pollsOf(aggregate.getParty("W" + writer));
+		}
+		assertTrue(before <= aggregated && aggregated <= after,
+				aggregated + " polls aggregated, list had " + before + " then " + after);
+		if (aggregated > 0) {
+			assertEquals(1f, aggregate.getParty("All").getProjectedNumberOfSeats());
+		}
+
+		int[] rendered = renderedPolls(rendering);
+		int total = 0;
+		for (int count : rendered) {
+			total += count;
+		}
+		assertTrue(before <= total && total <= after,
+				total + " polls rendered, list had " + before + " then " + after);
+	}
+
+	/**
+	 * Poll count, running totals and rendering of one snapshot must agree exactly.
+	 */
+	private static void checkSnapshot(PollList snapshot) {
+		int numOfPolls = snapshot.getNumOfPolls();
+		int[] rendered = renderedPolls(snapshot.textVisualizationBySeats());
+		int total = 0;
+		for (int writer = 0; writer < WRITERS; writer++) {
+			int fromTotals = pollsOf(snapshot.getAveragePartyData("W" + writer));
+			assertEquals(fromTotals, rendered[writer], "polls of writer " + writer);
+			total += fromTotals;
+		}
+		assertEquals(numOfPolls, total);
+
+		Set<String> names = new HashSet<String>();
+		for (Poll poll : snapshot.toArray()) {
+			assertTrue(names.add(poll.getPollName()), "poll " + poll.getPollName() + " appears twice");
+		}
+	}
+
+	/**
+	 * Counts the polls of each writer in a rendering, checking that each
+	 * writer's polls appear once, in order and without gaps, each followed
+	 * by its two parties.
+	 */
+	private static int[] renderedPolls(String rendering) {
+		int[] counts = new int[WRITERS];
+		int nonEmptyLines = 0;
+		for (String line : rendering.split("\n")) {
+			if (line.isEmpty()) {
+				continue;
+			}
+			nonEmptyLines++;
+			Matcher name = POLL_NAME.matcher(line);
+			if (name.matches()) {
+				int writer = Integer.parseInt(name.group(1));
+				assertEquals(counts[writer]++, Integer.parseInt(name.group(2)), "order of writer " + writer);
+			}
+		}
+		int total = 0;
+		for (int count : counts) {
+			total += count;
+		}
+		assertEquals(3 * total, nonEmptyLines, "lines per poll");
+		return counts;
+	}
+
+}
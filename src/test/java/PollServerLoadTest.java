@@ -0,0 +1,161 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Load test that sends many concurrent requests to a PollServer on localhost
+ * while another thread keeps adding polls and replacing parties in the list.
+ */
+public class PollServerLoadTest {
+
+	private static final int CLIENTS = 8;
+	private static final int REQUESTS_PER_CLIENT = 250;
+	private static final int INITIAL_POLLS = 50;
+	private static final int ADDED_POLLS = 200;
+	private static final String[] PATHS = {"/seats", "/votes", "/poll/Poll%201", "/poll/poll%202?type=votes",
+			"/aggregate", "/aggregate?type=votes&parties=Red,Blue"};
+	private static final Pattern POLL_NAME = Pattern.compile("Poll (\\d+)");
+
+	private PollList list;
+	private PollServer server;
+	private HttpClient client;
+
+	@BeforeEach
+	public void startServer() throws Exception {
+		list = new PollList(100);
+		for (int index = 0; index < INITIAL_POLLS; index++) {
+			list.addPoll(newPoll(index));
+		}
+		server = new PollServer(list, new InetSocketAddress(0), true);
+		server.start();
+		client = HttpClient.newHttpClient();
+	}
+
+	@AfterEach
+	public void stopServer() {
+		server.stop(0);
+	}
+
+	@Test
+	public void answersConcurrentRequestsWhileTheListChanges() throws Exception {
+		AtomicBoolean writing = new AtomicBoolean(true);
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService threads = Executors.newFixedThreadPool(CLIENTS + 1);
+		List<Future<?>> results = new ArrayList<Future<?>>();
+		try {
+			results.add(threads.submit(() -> {
+				start.await();
+				for (int index = INITIAL_POLLS; index < INITIAL_POLLS + ADDED_POLLS; index++) {
+					list.addPoll(newPoll(index));
+					// replacing a party of a poll already served changes the version too
+					list.toArray()[index % INITIAL_POLLS].addParty(new Party("Red", index % 60, 0.4f));
+					Thread.sleep(1);
+				}
+				writing.set(false);
+				return null;
+			}));
+			for (int clientIndex = 0; clientIndex < CLIENTS; clientIndex++) {
+				int offset = clientIndex;
+				results.add(threads.submit(() -> {
+					start.await();
+					for (int request = 0; request < REQUESTS_PER_CLIENT; request++) {
+						String path = PATHS[(offset + request) % PATHS.length];
+						int before = list.getNumOfPolls();
+						HttpResponse<String> response = get(path);
+						int after = list.getNumOfPolls();
+						assertEquals(200, response.statusCode(), path);
+						if (path.equals("/seats") || path.equals("/votes")) {
+							int polls = countPolls(response.body());
+							assertTrue(before <= polls && polls <= after,
+									polls + " polls served, list had " + before + " then " + after);
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> result : results) {
+				result.get(2, TimeUnit.MINUTES);
+			}
+		} finally {
+			threads.shutdownNow();
+		}
+		assertTrue(!writing.get());
+
+		// once the list stops changing every response matches the list
+		assertEquals(list.textVisualizationBySeats(), get("/seats").body());
+		assertEquals(list.textVisualizationByVotes(), get("/votes").body());
+		assertEquals(INITIAL_POLLS + ADDED_POLLS, countPolls(get("/seats").body()));
+		assertEquals(list.toArray()[1].textVisualizationBySeats(PollList.MAX_STARS_FOR_VISUALIZATION,
+				list.seatsPerStar()), get("/poll/poll%201").body());
+	}
+
+	@Test
+	public void answersErrorsWithStatusCodes() throws Exception {
+		assertEquals(404, get("/poll/Missing").statusCode());
+		assertEquals(404, get("/unknown").statusCode());
+		HttpRequest post = HttpRequest.newBuilder(uri("/seats"))
+				.POST(HttpRequest.BodyPublishers.noBody()).build();
+		assertEquals(405, client.send(post, HttpResponse.BodyHandlers.ofString()).statusCode());
+		// a poll that fails to render must not leave the connection without an answer
+		list.addPoll(new Poll("Broken", 1) {
+			public void textVisualizationBySeats(Appendable out, int maxStars, double numOfSeatsPerStar) {
+				throw new IllegalStateException("cannot render");
+			}
+		});
+		assertEquals(500, get("/poll/Broken").statusCode());
+		assertEquals(500, get("/seats").statusCode());
+		assertEquals(200, get("/poll/Poll%201").statusCode());
+	}
+
+	private HttpResponse<String> get(String path) throws Exception {
+		return client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofString());
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + server.getPort() + path);
+	}
+
+	private static Poll newPoll(int index) {
+		Poll poll = new Poll("Poll " + index, 3);
+		poll.addParty(new Party("Red", index % 50, 0.4f));
+		poll.addParty(new Party("Blue", 50 - index % 50, 0.35f));
+		poll.addParty(new Party("Green", 5, 0.1f));
+		return poll;
+	}
+
+	/**
+	 * Counts the polls in a rendering of the whole list, checking that they
+	 * appear in the order they were added and without gaps.
+	 */
+	private static int countPolls(String rendering) {
+		int count = 0;
+		for (String line : rendering.split("\n")) {
+			Matcher name = POLL_NAME.matcher(line);
+			if (name.matches()) {
+				assertEquals(count++, Integer.parseInt(name.group(1)));
+			}
+		}
+		return count;
+	}
+
+}
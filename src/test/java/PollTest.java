@@ -0,0 +1,77 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the name index, party IDs and the running totals of the list
+ * stay right when parties of a poll are renamed through Party.setName.
+ */
+public class PollTest {
+
+	@Test
+	public void renameToTheNameOfAnotherPartyReplacesIt() {
+		PollList list = new PollList(100);
+		Poll poll = new Poll("Poll", 5);
+		Party red = new Party("Red", 40, 0.4f);
+		Party blue = new Party("Blue", 30, 0.3f);
+		Party green = new Party("Green", 10, 0.1f);
+		poll.addParty(red);
+		poll.addParty(blue);
+		poll.addParty(green);
+		list.addPoll(poll);
+		Poll other = new Poll("Other", 2);
+		other.addParty(new Party("Blue", 20, 0.2f));
+		list.addPoll(other);
+
+		green.setName("BLUE");
+
+		assertEquals(2, poll.getNumberOfParties());
+		assertSame(green, poll.getParty("blue"));
+		assertSame(red, poll.getParty("Red"));
+		assertNull(poll.getParty("Green"));
+		PartyRegistry registry = list.getPartyRegistry();
+		assertSame(green, poll.findParty(registry.idOf("Blue")));
+		assertSame(red, poll.findParty(registry.idOf("Red")));
+		assertNull(poll.findParty(registry.idOf("Green")));
+
+		// the list counts the renamed party once, and not the party it replaced
+		assertEquals(15f, list.getAveragePartyData("Blue").getProjectedNumberOfSeats());
+		assertEquals(40f, list.getAveragePartyData("Red").getProjectedNumberOfSeats());
+		assertEquals(0f, list.getAveragePartyData("Green").getProjectedNumberOfSeats());
+
+		// the replaced party no longer belongs to the poll
+		blue.setProjectedNumberOfSeats(99);
+		assertEquals(15f, list.getAveragePartyData("Blue").getProjectedNumberOfSeats());
+
+		// the freed slot is used by the next party, without overwriting one
+		poll.addParty(new Party("Orange", 5, 0.05f));
+		poll.addParty(new Party("Purple", 2, 0.02f));
+		poll.addParty(new Party("Yellow", 1, 0.01f));
+		assertEquals(5, poll.getNumberOfParties());
+		assertSame(green, poll.getParty("Blue"));
+		assertSame(red, poll.getParty("Red"));
+		assertEquals("Poll\n" + red + "\n" + green + "\n" + poll.getParty("Orange") + "\n"
+				+ poll.getParty("Purple") + "\n" + poll.getParty("Yellow") + "\n", poll.toString());
+	}
+
+	@Test
+	public void renameKeepsTheOrderOfTheOtherParties() {
+		Poll poll = new Poll("Poll", 4);
+		Party first = new Party("First", 1, 0.1f);
+		Party second = new Party("Second", 2, 0.2f);
+		Party third = new Party("Third", 3, 0.3f);
+		poll.addParty(first);
+		poll.addParty(second);
+		poll.addParty(third);
+
+		first.setName("Third");
+
+		assertEquals(2, poll.getNumberOfParties());
+		assertSame(first, poll.getParty("Third"));
+		assertSame(second, poll.getParty("Second"));
+		assertEquals("Poll\n" + first + "\n" + second + "\n", poll.toString());
+	}
+
+}
@@ -0,0 +1,253 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that PollWriteAheadLog recovers the polls it logged: after the
+ * process stops without closing it, from a log with a damaged end, from a
+ * snapshot and the records after it, and after checkpoints that ran while
+ * polls were added.
+ */
+public class PollWriteAheadLogTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void replaysSyncedRecordsWhenNotClosed() throws IOException {
+		PollWriteAheadLog log = PollWriteAheadLog.open(directory, 100, 0, 1000);
+		for (int index = 0; index < 5; index++) {
+			log.addPoll(newPoll(index));
+		}
+		log.getPollList().pollAt(1).addParty(new Party("Orange", 7, 0.07f));
+		log.getPollList().pollAt(2).getParty("Red").setProjectedNumberOfSeats(33);
+		log.sync();
+		String synced = render(log.getPollList());
+		long lastLsn = log.getLastLsn();
+		// the process stops here, log is never closed
+
+		PollWriteAheadLog reopened = PollWriteAheadLog.open(directory, 100, 0, 1000);
+		assertEquals(synced, render(reopened.getPollList()));
+		assertEquals(lastLsn, reopened.getLastLsn());
+		reopened.close();
+	}
+
+	@Test
+	public void cutsOffATornRecordAndDropsLaterFiles() throws IOException {
+		cutsOffDamagedEnd(false);
+	}
+
+	@Test
+	public void cutsOffARecordWithABadChecksumAndDropsLaterFiles() throws IOException {
+		cutsOffDamagedEnd(true);
+	}
+
+	@Test
+	public void replaysTheRecordsAfterTheSnapshot() throws IOException {
+		PollWriteAheadLog log = PollWriteAheadLog.open(directory, 100, 0, 1000);
+		for (int index = 0; index < 4; index++) {
+			log.addPoll(newPoll(index));
+		}
+		log.getPollList().pollAt(0).getParty("Red").setName("Crimson");
+		log.checkpoint();
+		long snapshotLsn = log.getSnapshotLsn();
+		assertEquals(log.getLastLsn(), snapshotLsn);
+		assertTrue(Files.exists(directory.resolve("snapshot-" + snapshotLsn + ".pls")));
+		assertFalse(Files.exists(directory.resolve("wal-1.log")));
+
+		log.addPoll(newPoll(4));
+		log.getPollList().pollAt(1).getParty("Blue").setName("Navy");
+		log.getPollList().pollAt(0).getParty("Crimson").setName("Scarlet");
+		log.getPollList().pollAt(3).addParty(new Party("Orange", 7, 0.07f));
+		String expected = render(log.getPollList());
+		long lastLsn = log.getLastLsn();
+		log.close();
+
+		PollWriteAheadLog reopened = PollWriteAheadLog.open(directory, 100, 0, 1000);
+		assertEquals(expected, render(reopened.getPollList()));
+		assertEquals(snapshotLsn, reopened.getSnapshotLsn());
+		assertEquals(lastLsn, reopened.getLastLsn());
+		reopened.close();
+	}
+
+	@Test
+	public void replaysARenameTheSnapshotAlreadyHolds() throws IOException {
+		PollWriteAheadLog log = PollWriteAheadLog.open(directory, 100, 0, 1000);
+		Poll poll = newPoll(0);
+		// runs before the logger of the log, so the snapshot sees the new name before the rename is logged
+		AtomicBoolean checkpointed = new AtomicBoolean();
+		poll.addChangeListener((changed, oldParty, newParty) -> {
+			if (oldParty != null && !oldParty.getName().equals(newParty.getName()) && !checkpointed.getAndSet(true)) {
+				try {
+					log.checkpoint();
+				} catch (IOException e) {
+					throw new AssertionError(e);
+				}
+			}
+		});
+		log.addPoll(poll);
+		log.addPoll(newPoll(1));
+		poll.getParty("Red").setName("Crimson");
+		assertTrue(checkpointed.get());
+		assertTrue(log.getLastLsn() > log.getSnapshotLsn(), "rename is logged after the snapshot");
+		poll.getParty("Crimson").setProjectedNumberOfSeats(12);
+		String expected = render(log.getPollList());
+		log.close();
+
+		PollWriteAheadLog reopened = PollWriteAheadLog.open(directory, 100, 0, 1000);
+		assertEquals(expected, render(reopened.getPollList()));
+		Poll recovered = reopened.getPollList().pollAt(0);
+		assertEquals(3, recovered.getNumberOfParties());
+		assertEquals(12f, recovered.getParty("Crimson").getProjectedNumberOfSeats());
+		reopened.close();
+	}
+
+	@Test
+	public void replaysARenameToTheNameOfAnotherParty() throws IOException {
+		PollWriteAheadLog log = PollWriteAheadLog.open(directory, 100, 0, 1000);
+		log.addPoll(newPoll(0));
+		log.getPollList().pollAt(0).getParty("Green").setName("Red");
+		assertEquals(2, log.getPollList().pollAt(0).getNumberOfParties());
+		String expected = render(log.getPollList());
+		log.close();
+
+		PollWriteAheadLog reopened = PollWriteAheadLog.open(directory, 100, 0, 1000);
+		assertEquals(expected, render(reopened.getPollList()));
+		assertEquals(2, reopened.getPollList().pollAt(0).getNumberOfParties());
+		assertEquals(5f, reopened.getPollList().getAveragePartyData("Red").getProjectedNumberOfSeats());
+		reopened.close();
+	}
+
+	@Test
+	public void checkpointsWhilePollsAreAdded() throws Exception {
+		int writers = 3;
+		int pollsPerWriter = 300;
+		PollWriteAheadLog log = PollWriteAheadLog.open(directory, 100, 0, 1000);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicBoolean writing = new AtomicBoolean(true);
+		ExecutorService threads = Executors.newFixedThreadPool(writers + 1);
+		List<Future<?>> results = new ArrayList<Future<?>>();
+		int checkpoints = 0;
+		try {
+			for (int writer = 0; writer < writers; writer++) {
+				int offset = writer * pollsPerWriter;
+				results.add(threads.submit(() -> {
+					start.await();
+					for (int index = offset; index < offset + pollsPerWriter; index++) {
+						log.addPoll(newPoll(index));
+						Poll earlier = log.getPollList().pollAt(index % 10);
+						synchronized (earlier) {
+							earlier.getParty("Blue").setProjectedNumberOfSeats(index % 50);
+						}
+					}
+					return null;
+				}));
+			}
+			Future<?> checkpointer = threads.submit(() -> {
+				start.await();
+				int count = 0;
+				while (writing.get()) {
+					log.checkpoint();
+					count++;
+				}
+				return count;
+			});
+			start.countDown();
+			for (Future<?> result : results) {
+				result.get(2, TimeUnit.MINUTES);
+			}
+			writing.set(false);
+			checkpoints = (Integer) checkpointer.get(2, TimeUnit.MINUTES);
+		} finally {
+			threads.shutdownNow();
+		}
+		assertTrue(checkpoints > 0);
+		assertEquals(writers * pollsPerWriter, log.getPollList().getNumOfPolls());
+		String expected = render(log.getPollList());
+		long lastLsn = log.getLastLsn();
+		log.close();
+
+		PollWriteAheadLog reopened = PollWriteAheadLog.open(directory, 100, 0, 1000);
+		assertEquals(expected, render(reopened.getPollList()));
+		assertEquals(lastLsn, reopened.getLastLsn());
+		reopened.close();
+	}
+
+	/**
+	 * Logs polls 0 to 2 into the first file and polls 3 and 4 into a second
+	 * one, then damages the last record of the first file. Only polls 0 and
+	 * 1 come before the damage, so the rest of the log is lost.
+	 */
+	private void cutsOffDamagedEnd(boolean badChecksum) throws IOException {
+		PollWriteAheadLog log = PollWriteAheadLog.open(directory, 100, 0, 1000);
+		for (int index = 0; index < 3; index++) {
+			log.addPoll(newPoll(index));
+		}
+		log.close();
+		log = PollWriteAheadLog.open(directory, 100, 0, 1000);
+		log.addPoll(newPoll(3));
+		log.addPoll(newPoll(4));
+		log.close();
+		Path first = directory.resolve("wal-1.log");
+		Path second = directory.resolve("wal-4.log");
+		assertTrue(Files.exists(second));
+
+		try (FileChannel channel = FileChannel.open(first, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			long size = channel.size();
+			if (badChecksum) {
+				ByteBuffer last = ByteBuffer.allocate(1);
+				channel.read(last, size - 1);
+				last.put(0, (byte) (last.get(0) ^ 0x5A)).rewind();
+				channel.write(last, size - 1);
+			}
+			else {
+				channel.truncate(size - 3);
+			}
+		}
+
+		PollWriteAheadLog reopened = PollWriteAheadLog.open(directory, 100, 0, 1000);
+		PollList list = reopened.getPollList();
+		assertEquals(2, list.getNumOfPolls());
+		assertEquals("Poll 1", list.pollAt(1).getPollName());
+		assertEquals(2, reopened.getLastLsn());
+		assertFalse(Files.exists(second));
+		reopened.addPoll(newPoll(5));
+		reopened.close();
+
+		PollWriteAheadLog again = PollWriteAheadLog.open(directory, 100, 0, 1000);
+		assertEquals(3, again.getPollList().getNumOfPolls());
+		assertEquals("Poll 5", again.getPollList().pollAt(2).getPollName());
+		again.close();
+	}
+
+	private static Poll newPoll(int index) {
+		Poll poll = new Poll("Poll " + index, 4);
+		poll.addParty(new Party("Red", index % 50, 0.4f));
+		poll.addParty(new Party("Blue", 50 - index % 50, 0.35f));
+		poll.addParty(new Party("Green", 5, 0.1f));
+		return poll;
+	}
+
+	private static String render(PollList list) {
+		return list.textVisualizationBySeats() + list.textVisualizationByVotes();
+	}
+
+}
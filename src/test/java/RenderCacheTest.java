@@ -0,0 +1,52 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that renderings cached by RenderCache follow the changes made to
+ * the parties of a poll through their setters.
+ */
+public class RenderCacheTest {
+
+	@Test
+	public void setColourRedrawsTheParty() {
+		PollList list = new PollList(100);
+		Poll poll = new Poll("Poll", 2);
+		Party red = new Party("Red", 40, 0.4f);
+		poll.addParty(red);
+		poll.addParty(new Party("Blue", 30, 0.3f));
+		list.addPoll(poll);
+		RenderCache cache = new RenderCache();
+
+		String before = cache.textVisualizationBySeats(poll, PollList.MAX_STARS_FOR_VISUALIZATION, list.seatsPerStar());
+		long pollVersion = poll.getVersion();
+		long listVersion = list.getVersion();
+		red.setColour(new Color(200, 10, 20));
+
+		assertTrue(poll.getVersion() > pollVersion);
+		assertTrue(list.getVersion() > listVersion);
+		String after = cache.textVisualizationBySeats(poll, PollList.MAX_STARS_FOR_VISUALIZATION, list.seatsPerStar());
+		assertNotEquals(before, after);
+		assertTrue(after.contains("[200,10,20]"), after);
+		assertEquals(poll.textVisualizationBySeats(PollList.MAX_STARS_FOR_VISUALIZATION, list.seatsPerStar()), after);
+	}
+
+	@Test
+	public void setterChangesRedrawTheParty() {
+		Poll poll = new Poll("Poll", 1);
+		Party red = new Party("Red", 40, 0.4f);
+		poll.addParty(red);
+		RenderCache cache = new RenderCache();
+
+		String before = cache.textVisualizationByVotes(poll, PollList.MAX_STARS_FOR_VISUALIZATION, 4);
+		red.setProjectedPercentageOfVotes(0.6f);
+		String after = cache.textVisualizationByVotes(poll, PollList.MAX_STARS_FOR_VISUALIZATION, 4);
+		assertNotEquals(before, after);
+		assertEquals(poll.textVisualizationByVotes(PollList.MAX_STARS_FOR_VISUALIZATION, 4), after);
+	}
+
+}